@@ -8,6 +8,9 @@ import org.fanlychie.jexcel.write.model.DefaultExcelSheet;
 
 import java.io.File;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
 
 /**
  * EXCEL帮助类
@@ -74,6 +77,69 @@ public final class ExcelHelper {
         return new ReadableExcel(excelFilePath).setStartRow(2);
     }
 
+    /**
+     * 获取一个可读的 Excel 对象
+     *
+     * @param excelPath Excel 文件路径
+     * @return 返回可读的 Excel 对象
+     */
+    public static ReadableExcel getReadableExcel(Path excelPath) {
+        return new ReadableExcel(excelPath).setStartRow(2);
+    }
+
+    /**
+     * 获取一个可读的 Excel 对象, 直接从输入流读取, 输入流由调用方关闭
+     *
+     * @param excelInputStream Excel 输入流
+     * @return 返回可读的 Excel 对象
+     */
+    public static ReadableExcel getReadableExcel(InputStream excelInputStream) {
+        return new ReadableExcel(excelInputStream).setStartRow(2);
+    }
+
+    /**
+     * 获取一个可读的 Excel 对象, 直接从字节数组读取
+     *
+     * @param excelBytes Excel 文件内容
+     * @return 返回可读的 Excel 对象
+     */
+    public static ReadableExcel getReadableExcel(byte[] excelBytes) {
+        return new ReadableExcel(excelBytes).setStartRow(2);
+    }
+
+    /**
+     * 获取一个可读的 Excel 对象, 直接从缓冲区的剩余内容读取
+     *
+     * @param excelBuffer Excel 文件内容
+     * @return 返回可读的 Excel 对象
+     */
+    public static ReadableExcel getReadableExcel(ByteBuffer excelBuffer) {
+        return new ReadableExcel(excelBuffer).setStartRow(2);
+    }
+
+    /**
+     * 获取一个可读的 CSV 对象, 字段以 ',' 分隔
+     *
+     * @param csvPath CSV 文件路径
+     * @param charset 文件编码
+     * @return 返回可读的 Excel 对象
+     */
+    public static ReadableExcel getReadableCsv(Path csvPath, Charset charset) {
+        return getReadableCsv(csvPath, charset, ',');
+    }
+
+    /**
+     * 获取一个可读的 CSV 对象
+     *
+     * @param csvPath   CSV 文件路径
+     * @param charset   文件编码
+     * @param delimiter 字段分隔符, TSV 为 '\t'
+     * @return 返回可读的 Excel 对象
+     */
+    public static ReadableExcel getReadableCsv(Path csvPath, Charset charset, char delimiter) {
+        return new ReadableExcel(csvPath, charset, delimiter).setStartRow(2);
+    }
+
     /**
      * 私有化构造
      */
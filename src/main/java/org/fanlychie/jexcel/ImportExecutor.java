@@ -0,0 +1,418 @@
+package org.fanlychie.jexcel;
+
+import org.fanlychie.jexcel.read.ReadableExcel;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Enumeration;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * 导入执行器, 每个上传文件的解析在独立的线程中执行并返回 CompletableFuture. 运行时支持虚拟线程时使用虚拟线程,
+ * 否则使用守护线程池, 也可以指定线程池. 所有任务共享一个堆内存预算, 按文件中共享字符串表、样式表等常驻内存部件的大小
+ * 估算每个任务占用的堆内存, 预算不足时任务按提交的顺序排队, 直到之前的任务完成释放预算
+ */
+public final class ImportExecutor {
+
+    /**
+     * 每个任务的基础堆内存, 包括解析缓冲区及 POI 的包结构
+     */
+    private static final long BASE_HEAP = 8L * 1024 * 1024;
+
+    /**
+     * 共享字符串表 XML 大小的放大倍数, 字符串按 UTF-16 存放并有对象头
+     */
+    private static final int SST_FACTOR = 2;
+
+    /**
+     * 样式表 XML 大小的放大倍数, 样式表由 XMLBeans 完整加载
+     */
+    private static final int STYLES_FACTOR = 10;
+
+    /**
+     * 没有记录解压后的大小时按压缩后大小估算的放大倍数
+     */
+    private static final int INFLATE_FACTOR = 10;
+
+    /**
+     * ZIP 中央目录结束记录的签名
+     */
+    private static final int END_OF_CENTRAL_DIRECTORY = 0x06054b50;
+
+    /**
+     * ZIP 中央目录文件头的签名
+     */
+    private static final int CENTRAL_DIRECTORY_HEADER = 0x02014b50;
+
+    private static final AtomicInteger THREAD_COUNT = new AtomicInteger();
+
+    private final long heapBudget;
+
+    private final Executor executor;
+
+    /**
+     * 由执行器创建的线程池, 指定线程池时为 null
+     */
+    private final ExecutorService ownedExecutor;
+
+    private final Queue<Task<?>> queue = new ArrayDeque<>();
+
+    /**
+     * 剩余的堆内存预算
+     */
+    private long available;
+
+    /**
+     * 构建一个导入执行器, 运行时支持虚拟线程时每个任务使用一个虚拟线程, 否则使用守护线程池
+     *
+     * @param heapBudget 所有任务共享的堆内存预算, 单位字节
+     */
+    public ImportExecutor(long heapBudget) {
+        this(heapBudget, null);
+    }
+
+    /**
+     * 构建一个导入执行器
+     *
+     * @param heapBudget 所有任务共享的堆内存预算, 单位字节
+     * @param executor   执行任务的线程池, 为 null 时运行时支持虚拟线程则使用虚拟线程, 否则使用守护线程池
+     */
+    public ImportExecutor(long heapBudget, Executor executor) {
+        if (heapBudget <= 0) {
+            throw new IllegalArgumentException("heapBudget must be greater than 0");
+        }
+        this.heapBudget = heapBudget;
+        this.available = heapBudget;
+        if (executor != null) {
+            this.executor = executor;
+            this.ownedExecutor = null;
+        } else {
+            this.ownedExecutor = newDefaultExecutor();
+            this.executor = ownedExecutor;
+        }
+    }
+
+    /**
+     * 提交导入任务, 文件在任务开始执行时打开, 任务结束后关闭. 预算只计算解析占用的堆内存,
+     * 导入任务应当以流的方式处理行数据, 不在任务中保留整个文件的解析结果
+     *
+     * @param excelPath  Excel 文件路径
+     * @param importTask 导入任务, 接收从第2行开始读取的 Excel 对象
+     * @param <R>
+     * @return 返回任务结果的 CompletableFuture
+     */
+    public <R> CompletableFuture<R> submit(final Path excelPath, final ImportTask<R> importTask) {
+        CompletableFuture<R> future = new CompletableFuture<>();
+        try {
+            admit(new Task<R>(estimateHeap(excelPath), future) {
+                @Override
+                ReadableExcel open() {
+                    return ExcelHelper.getReadableExcel(excelPath);
+                }
+
+                @Override
+                R execute(ReadableExcel readableExcel) throws Exception {
+                    return importTask.execute(readableExcel);
+                }
+            });
+        } catch (Throwable e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    /**
+     * 提交导入任务, 文件内容在任务开始执行时打开, 任务结束后关闭. 预算只计算解析占用的堆内存,
+     * 导入任务应当以流的方式处理行数据, 不在任务中保留整个文件的解析结果
+     *
+     * @param excelBytes Excel 文件内容
+     * @param importTask 导入任务, 接收从第2行开始读取的 Excel 对象
+     * @param <R>
+     * @return 返回任务结果的 CompletableFuture
+     */
+    public <R> CompletableFuture<R> submit(final byte[] excelBytes, final ImportTask<R> importTask) {
+        CompletableFuture<R> future = new CompletableFuture<>();
+        try {
+            admit(new Task<R>(estimateHeap(excelBytes), future) {
+                @Override
+                ReadableExcel open() {
+                    return ExcelHelper.getReadableExcel(excelBytes);
+                }
+
+                @Override
+                R execute(ReadableExcel readableExcel) throws Exception {
+                    return importTask.execute(readableExcel);
+                }
+            });
+        } catch (Throwable e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    /**
+     * 获取剩余的堆内存预算
+     *
+     * @return 返回剩余的堆内存预算, 单位字节
+     */
+    public synchronized long getAvailableHeap() {
+        return available;
+    }
+
+    /**
+     * 获取排队等待预算的任务数量
+     *
+     * @return 返回排队的任务数量
+     */
+    public synchronized int getQueuedCount() {
+        return queue.size();
+    }
+
+    /**
+     * 关闭执行器创建的线程池, 已提交的任务继续执行, 指定的线程池由调用方关闭
+     */
+    public void shutdown() {
+        if (ownedExecutor != null) {
+            ownedExecutor.shutdown();
+        }
+    }
+
+    /**
+     * 估算解析文件占用的堆内存. 工作表按流解析, 只计算常驻内存的部件: .xlsx 文件按共享字符串表和样式表解压后的大小估算,
+     * .xls 文件的共享字符串表在工作簿记录流中, 按文件大小估算
+     *
+     * @param excelPath Excel 文件路径
+     * @return 返回估算的堆内存, 单位字节
+     * @throws IOException
+     */
+    public static long estimateHeap(Path excelPath) throws IOException {
+        if (!isZip(excelPath)) {
+            return BASE_HEAP + Files.size(excelPath) * SST_FACTOR;
+        }
+        long estimate = BASE_HEAP;
+        ZipFile zipFile = new ZipFile(excelPath.toFile());
+        try {
+            Enumeration<? extends ZipEntry> entries = zipFile.entries();
+            while (entries.hasMoreElements()) {
+                estimate += residentSize(entries.nextElement());
+            }
+        } finally {
+            zipFile.close();
+        }
+        return estimate;
+    }
+
+    /**
+     * 估算解析文件内容占用的堆内存. 从字节数组打开时所有部件都解压到内存中, 另加所有部件解压后的大小.
+     * 部件的大小从 ZIP 中央目录读取, 估算过程不解压任何部件, 中央目录无法识别时按压缩比估算
+     *
+     * @param excelBytes Excel 文件内容
+     * @return 返回估算的堆内存, 单位字节
+     */
+    public static long estimateHeap(byte[] excelBytes) {
+        if (excelBytes.length < 4 || excelBytes[0] != 'P' || excelBytes[1] != 'K') {
+            return BASE_HEAP + (long) excelBytes.length * SST_FACTOR;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(excelBytes).order(ByteOrder.LITTLE_ENDIAN);
+        int end = findEndOfCentralDirectory(buffer);
+        long fallback = BASE_HEAP + (long) excelBytes.length * INFLATE_FACTOR;
+        if (end < 0) {
+            return fallback;
+        }
+        int count = buffer.getShort(end + 10) & 0xFFFF;
+        long position = buffer.getInt(end + 16) & 0xFFFFFFFFL;
+        long estimate = BASE_HEAP;
+        for (int i = 0; i < count; i++) {
+            if (position + 46 > end || buffer.getInt((int) position) != CENTRAL_DIRECTORY_HEADER) {
+                // ZIP64 或损坏的中央目录
+                return fallback;
+            }
+            int header = (int) position;
+            int nameLength = buffer.getShort(header + 28) & 0xFFFF;
+            int extraLength = buffer.getShort(header + 30) & 0xFFFF;
+            int commentLength = buffer.getShort(header + 32) & 0xFFFF;
+            if (header + 46 + nameLength > end) {
+                return fallback;
+            }
+            ZipEntry entry = new ZipEntry(new String(excelBytes, header + 46, nameLength, StandardCharsets.UTF_8));
+            entry.setCompressedSize(buffer.getInt(header + 20) & 0xFFFFFFFFL);
+            long size = buffer.getInt(header + 24) & 0xFFFFFFFFL;
+            if (size != 0xFFFFFFFFL) {
+                entry.setSize(size);
+            }
+            estimate += entrySize(entry) + residentSize(entry);
+            position += 46 + nameLength + extraLength + commentLength;
+        }
+        return estimate;
+    }
+
+    // 从文件末尾向前查找中央目录结束记录, 记录之后最多有 65535 字节的注释
+    private static int findEndOfCentralDirectory(ByteBuffer buffer) {
+        int min = Math.max(0, buffer.limit() - 22 - 0xFFFF);
+        for (int i = buffer.limit() - 22; i >= min; i--) {
+            if (buffer.getInt(i) == END_OF_CENTRAL_DIRECTORY) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    // 部件解压后的大小, 没有记录时按压缩后的大小估算
+    private static long entrySize(ZipEntry entry) {
+        return entry.getSize() >= 0 ? entry.getSize() : entry.getCompressedSize() * INFLATE_FACTOR;
+    }
+
+    // 常驻内存的部件估算的堆内存
+    private static long residentSize(ZipEntry entry) {
+        long size = entrySize(entry);
+        String name = entry.getName();
+        if (name.endsWith("sharedStrings.xml")) {
+            return size * SST_FACTOR;
+        }
+        if (name.endsWith("styles.xml")) {
+            return size * STYLES_FACTOR;
+        }
+        return 0;
+    }
+
+    private static boolean isZip(Path path) throws IOException {
+        InputStream stream = Files.newInputStream(path);
+        try {
+            return stream.read() == 'P' && stream.read() == 'K';
+        } finally {
+            stream.close();
+        }
+    }
+
+    // 运行时支持虚拟线程时使用虚拟线程, 否则使用守护线程池
+    private static ExecutorService newDefaultExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (Exception e) {
+            return Executors.newCachedThreadPool(new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable r) {
+                    Thread thread = new Thread(r, "jexcel-import-" + THREAD_COUNT.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+        }
+    }
+
+    // 预算足够且没有排队的任务时立即执行, 否则排队
+    private void admit(Task<?> task) {
+        synchronized (this) {
+            if (!queue.isEmpty() || available < task.cost) {
+                queue.add(task);
+                return;
+            }
+            available -= task.cost;
+        }
+        dispatch(task);
+    }
+
+    // 释放预算, 按顺序执行预算足够的排队任务
+    private void release(Task<?> task) {
+        Queue<Task<?>> ready = new ArrayDeque<>();
+        synchronized (this) {
+            available += task.cost;
+            while (!queue.isEmpty() && available >= queue.peek().cost) {
+                Task<?> next = queue.poll();
+                available -= next.cost;
+                ready.add(next);
+            }
+        }
+        for (Task<?> next : ready) {
+            dispatch(next);
+        }
+    }
+
+    private void dispatch(Task<?> task) {
+        try {
+            executor.execute(task);
+        } catch (Throwable e) {
+            release(task);
+            task.future.completeExceptionally(e);
+        }
+    }
+
+    /**
+     * 导入任务
+     *
+     * @param <R> 任务结果类型
+     */
+    public interface ImportTask<R> {
+
+        /**
+         * 执行导入
+         *
+         * @param readableExcel 可读的 Excel 对象, 任务结束后由执行器关闭
+         * @return 返回任务结果
+         * @throws Exception
+         */
+        R execute(ReadableExcel readableExcel) throws Exception;
+
+    }
+
+    /**
+     * 已提交的任务, 超过总预算的任务按总预算计算, 单独执行
+     */
+    private abstract class Task<R> implements Runnable {
+
+        final long cost;
+
+        final CompletableFuture<R> future;
+
+        Task(long estimate, CompletableFuture<R> future) {
+            this.cost = Math.min(estimate, heapBudget);
+            this.future = future;
+        }
+
+        abstract ReadableExcel open();
+
+        abstract R execute(ReadableExcel readableExcel) throws Exception;
+
+        // 文件关闭、预算释放之后再完成 future
+        @Override
+        public void run() {
+            R result = null;
+            Throwable error = null;
+            try {
+                if (!future.isCancelled()) {
+                    ReadableExcel readableExcel = open();
+                    try {
+                        result = execute(readableExcel);
+                    } finally {
+                        readableExcel.close();
+                    }
+                }
+            } catch (Throwable e) {
+                error = e;
+            } finally {
+                release(this);
+            }
+            if (error != null) {
+                future.completeExceptionally(error);
+            } else {
+                future.complete(result);
+            }
+        }
+
+    }
+
+}
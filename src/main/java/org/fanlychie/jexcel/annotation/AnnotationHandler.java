@@ -1,16 +1,22 @@
 package org.fanlychie.jexcel.annotation;
 
+import org.fanlychie.jexcel.exception.ExcelCastException;
+import org.fanlychie.jexcel.spec.Align;
 import org.fanlychie.jexcel.spec.Format;
 import org.fanlychie.jreflect.BeanDescriptor;
 import org.fanlychie.jreflect.FieldDescriptor;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * 注解解析器
@@ -21,7 +27,12 @@ public final class AnnotationHandler {
     /**
      * 缓存
      */
-    private static final Map<Class<?>, List<CellField>> CELL_FIELD_CACHE = new HashMap<>();
+    private static final Map<Class<?>, List<CellField>> CELL_FIELD_CACHE = new ConcurrentHashMap<>();
+
+    /**
+     * 方法句柄查找器
+     */
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
 
     /**
      * 解析类声明的 @Cell 注解
@@ -40,6 +51,41 @@ public final class AnnotationHandler {
         return cellFields;
     }
 
+    /**
+     * 解析用于读取的类声明的 @Cell 注解, 所有字段都须可以赋值, 否则在解析之前抛出异常
+     *
+     * @param targetClass 目标类
+     * @return 返回解析出来的 CellField 数据列表
+     */
+    public static List<CellField> parseReadableClass(Class<?> targetClass) {
+        List<CellField> cellFields = parseClass(targetClass);
+        for (CellField cellField : cellFields) {
+            if (!cellField.isSettable()) {
+                throw new ExcelCastException(new IllegalAccessException(
+                        "can not set static final field " + cellField.getField() + " in " + targetClass));
+            }
+        }
+        return cellFields;
+    }
+
+    /**
+     * 创建不对应对象字段的单元格字段, 用于按列定义读取, 不能取值和赋值
+     *
+     * @param index 单元格索引, 数值从0开始
+     * @param name  单元格标题名称, 可以为 null
+     * @param type  单元格值的类型
+     * @return 返回单元格字段
+     */
+    public static CellField newCellField(int index, String name, Class<?> type) {
+        CellField cellField = new CellField();
+        cellField.setType(type);
+        cellField.setName(name);
+        cellField.setIndex(index);
+        cellField.setAlign(Align.LEFT);
+        cellField.setFormat(Format.getDefault(type));
+        return cellField;
+    }
+
     /**
      * 转换 @Cell 注解为 {@link CellField} 集合表示
      *
@@ -56,6 +102,7 @@ public final class AnnotationHandler {
             cellField.setName(cell.name());
             cellField.setIndex(cell.index());
             cellField.setAlign(cell.align());
+            compileFieldAccessor(cellField, field);
             String format = cell.format();
             if (format != null && !format.isEmpty()) {
                 cellField.setFormat(format);
@@ -67,6 +114,67 @@ public final class AnnotationHandler {
         return cellFields;
     }
 
+    /**
+     * 编译字段的取值和赋值句柄, 每个类只编译一次, 读写时不再按名称反射查找字段
+     *
+     * @param cellField 单元格字段
+     * @param field     字段对象
+     */
+    private static void compileFieldAccessor(CellField cellField, Field field) {
+        field.setAccessible(true);
+        boolean isStatic = Modifier.isStatic(field.getModifiers());
+        try {
+            MethodHandle getter = LOOKUP.unreflectGetter(field);
+            // 静态字段忽略对象参数
+            if (isStatic) {
+                getter = MethodHandles.dropArguments(getter, 0, Object.class);
+            }
+            cellField.setGetter(getter.asType(MethodType.methodType(Object.class, Object.class)));
+        } catch (IllegalAccessException e) {
+            throw new ExcelCastException(e);
+        }
+        MethodHandle setter;
+        try {
+            setter = LOOKUP.unreflectSetter(field);
+            if (isStatic) {
+                setter = MethodHandles.dropArguments(setter, 0, Object.class);
+            }
+        } catch (IllegalAccessException e) {
+            setter = fieldSetter(field);
+        }
+        // 静态 final 字段不可赋值, 只用于输出
+        if (setter != null) {
+            cellField.setSetter(setter.asType(MethodType.methodType(void.class, Object.class, Object.class)));
+            if (field.getType().isPrimitive()) {
+                cellField.setPrimitiveSetter(setter.asType(MethodType.methodType(void.class, Object.class, field.getType())));
+            }
+        }
+    }
+
+    /**
+     * final 字段没有赋值句柄时, 与反射一样通过可访问的 Field 赋值, 类型为 (Object, 字段类型)void
+     *
+     * @param field 已设置可访问的字段对象
+     * @return 返回赋值句柄, 静态 final 字段返回 null
+     */
+    private static MethodHandle fieldSetter(Field field) {
+        if (Modifier.isStatic(field.getModifiers())) {
+            return null;
+        }
+        Class<?> type = field.getType();
+        String name = "set";
+        if (type.isPrimitive()) {
+            name += Character.toUpperCase(type.getName().charAt(0)) + type.getName().substring(1);
+        } else {
+            type = Object.class;
+        }
+        try {
+            return LOOKUP.findVirtual(Field.class, name, MethodType.methodType(void.class, Object.class, type)).bindTo(field);
+        } catch (ReflectiveOperationException e) {
+            throw new ExcelCastException(e);
+        }
+    }
+
     /**
      * 获取 @Cell 注解标注的 Map<字段对象, 注解对象>
      *
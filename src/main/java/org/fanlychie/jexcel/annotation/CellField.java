@@ -1,7 +1,10 @@
 package org.fanlychie.jexcel.annotation;
 
+import org.fanlychie.jexcel.exception.ExcelCastException;
 import org.fanlychie.jexcel.spec.Align;
 
+import java.lang.invoke.MethodHandle;
+
 /**
  * 单元格注解字段
  * Created by fanlychie on 2017/3/5.
@@ -46,6 +49,21 @@ public class CellField {
      */
     private Class<?> type;
 
+    /**
+     * 字段取值句柄, 类型为 (Object)Object
+     */
+    private MethodHandle getter;
+
+    /**
+     * 字段赋值句柄, 类型为 (Object, Object)void
+     */
+    private MethodHandle setter;
+
+    /**
+     * 基本类型字段的赋值句柄, 类型为 (Object, 字段类型)void, 赋值时不装箱
+     */
+    private MethodHandle primitiveSetter;
+
     /**
      * 外部不可访问
      */
@@ -101,4 +119,165 @@ public class CellField {
         this.type = type;
     }
 
-}
\ No newline at end of file
+    /**
+     * 获取对象的字段值
+     *
+     * @param bean 对象
+     * @return 返回字段值
+     */
+    public Object getValue(Object bean) {
+        try {
+            return (Object) getter.invokeExact(bean);
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new ExcelCastException(e);
+        }
+    }
+
+    /**
+     * 字段是否可以赋值, 静态 final 字段及不对应对象字段的单元格字段不可赋值
+     *
+     * @return 可以赋值返回 true
+     */
+    public boolean isSettable() {
+        return setter != null;
+    }
+
+    /**
+     * 设置对象的字段值
+     *
+     * @param bean  对象
+     * @param value 字段值
+     */
+    public void setValue(Object bean, Object value) {
+        if (setter == null) {
+            throw new UnsupportedOperationException("can not set static final field " + field);
+        }
+        try {
+            setter.invokeExact(bean, value);
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new ExcelCastException(e);
+        }
+    }
+
+    /**
+     * 设置对象的 int 类型字段值
+     *
+     * @param bean  对象
+     * @param value 字段值
+     */
+    public void setInt(Object bean, int value) {
+        try {
+            primitiveSetter().invokeExact(bean, value);
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new ExcelCastException(e);
+        }
+    }
+
+    /**
+     * 设置对象的 long 类型字段值
+     *
+     * @param bean  对象
+     * @param value 字段值
+     */
+    public void setLong(Object bean, long value) {
+        try {
+            primitiveSetter().invokeExact(bean, value);
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new ExcelCastException(e);
+        }
+    }
+
+    /**
+     * 设置对象的 short 类型字段值
+     *
+     * @param bean  对象
+     * @param value 字段值
+     */
+    public void setShort(Object bean, short value) {
+        try {
+            primitiveSetter().invokeExact(bean, value);
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new ExcelCastException(e);
+        }
+    }
+
+    /**
+     * 设置对象的 byte 类型字段值
+     *
+     * @param bean  对象
+     * @param value 字段值
+     */
+    public void setByte(Object bean, byte value) {
+        try {
+            primitiveSetter().invokeExact(bean, value);
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new ExcelCastException(e);
+        }
+    }
+
+    /**
+     * 设置对象的 double 类型字段值
+     *
+     * @param bean  对象
+     * @param value 字段值
+     */
+    public void setDouble(Object bean, double value) {
+        try {
+            primitiveSetter().invokeExact(bean, value);
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new ExcelCastException(e);
+        }
+    }
+
+    /**
+     * 设置对象的 float 类型字段值
+     *
+     * @param bean  对象
+     * @param value 字段值
+     */
+    public void setFloat(Object bean, float value) {
+        try {
+            primitiveSetter().invokeExact(bean, value);
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new ExcelCastException(e);
+        }
+    }
+
+    // 基本类型字段的赋值句柄, 静态 final 字段或非基本类型字段没有该句柄
+    private MethodHandle primitiveSetter() {
+        if (primitiveSetter == null) {
+            throw new UnsupportedOperationException(setter == null
+                    ? "can not set static final field " + field : "field " + field + " is not a primitive field");
+        }
+        return primitiveSetter;
+    }
+
+    void setGetter(MethodHandle getter) {
+        this.getter = getter;
+    }
+
+    void setSetter(MethodHandle setter) {
+        this.setter = setter;
+    }
+
+    void setPrimitiveSetter(MethodHandle primitiveSetter) {
+        this.primitiveSetter = primitiveSetter;
+    }
+
+}
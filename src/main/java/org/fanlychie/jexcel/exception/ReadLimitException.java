@@ -0,0 +1,100 @@
+package org.fanlychie.jexcel.exception;
+
+/**
+ * 读取限制异常, 解析过程中超过 {@link org.fanlychie.jexcel.read.ReadLimits} 设置的限制时立即抛出
+ */
+public class ReadLimitException extends ReadExcelException {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 超过的限制
+     */
+    private final Limit limit;
+
+    /**
+     * 限制值
+     */
+    private final long maxValue;
+
+    /**
+     * 实际值
+     */
+    private final long actualValue;
+
+    public ReadLimitException(Limit limit, long maxValue, long actualValue) {
+        this(limit, maxValue, actualValue, "read limit exceeded : " + limit + " " + actualValue + " > " + maxValue);
+    }
+
+    public ReadLimitException(Limit limit, long maxValue, long actualValue, String message) {
+        super(message);
+        this.limit = limit;
+        this.maxValue = maxValue;
+        this.actualValue = actualValue;
+    }
+
+    /**
+     * 获取超过的限制
+     *
+     * @return 返回超过的限制
+     */
+    public Limit getLimit() {
+        return limit;
+    }
+
+    /**
+     * 获取限制值
+     *
+     * @return 返回限制值
+     */
+    public long getMaxValue() {
+        return maxValue;
+    }
+
+    /**
+     * 获取实际值, 单元格文本在解码之前即超过限制时为文本的字节数
+     *
+     * @return 返回实际值
+     */
+    public long getActualValue() {
+        return actualValue;
+    }
+
+    /**
+     * 读取限制的种类
+     */
+    public enum Limit {
+
+        /**
+         * 单个部件解压后的字节数
+         */
+        PART_BYTES,
+
+        /**
+         * 共享字符串的数量
+         */
+        SHARED_STRINGS,
+
+        /**
+         * 共享字符串的字符总数
+         */
+        SHARED_STRING_CHARS,
+
+        /**
+         * 行数
+         */
+        ROWS,
+
+        /**
+         * 列数
+         */
+        COLUMNS,
+
+        /**
+         * 单元格文本的长度
+         */
+        CELL_LENGTH
+
+    }
+
+}
@@ -0,0 +1,17 @@
+package org.fanlychie.jexcel.read;
+
+import java.util.List;
+
+/**
+ * 批量消费者, 每解析完成一批行数据即回调一次, 适用于批量入库、批量发送消息等
+ */
+public interface BatchConsumer<T> {
+
+    /**
+     * 批量处理
+     *
+     * @param rows 当前批次的行数据, 列表在回调返回后会被清空复用, 不可在回调之外持有其引用
+     */
+    void accept(List<T> rows);
+
+}
@@ -0,0 +1,191 @@
+package org.fanlychie.jexcel.read;
+
+import org.fanlychie.jexcel.exception.ExcelCastException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 批量行处理器, 将行数据按批次交给批量消费者, 批次列表循环复用.
+ * 异步模式下由单独的线程回调消费者, 解析下一批的同时消费当前批
+ */
+final class BatchRowHandler<T> implements RowHandler<T> {
+
+    /**
+     * 结束标记
+     */
+    private static final List<Object> END = new ArrayList<>(0);
+
+    private final int batchSize;
+
+    private final BatchConsumer<T> batchConsumer;
+
+    /**
+     * 空闲的批次列表, 仅异步模式使用
+     */
+    private BlockingQueue<List<T>> freeLists;
+
+    /**
+     * 待消费的批次列表, 仅异步模式使用
+     */
+    private BlockingQueue<List<T>> fullLists;
+
+    private ExecutorService consumerPool;
+
+    private Future<?> consumerFuture;
+
+    private List<T> current;
+
+    private volatile Throwable error;
+
+    BatchRowHandler(int batchSize, BatchConsumer<T> batchConsumer, boolean async) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("batchSize must be greater than 0");
+        }
+        this.batchSize = batchSize;
+        this.batchConsumer = batchConsumer;
+        this.current = new ArrayList<>(batchSize);
+        if (async) {
+            this.freeLists = new ArrayBlockingQueue<>(1);
+            this.fullLists = new ArrayBlockingQueue<>(2);
+            this.freeLists.add(new ArrayList<T>(batchSize));
+            this.consumerPool = Executors.newSingleThreadExecutor(new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable r) {
+                    Thread thread = new Thread(r, "jexcel-batch-consumer");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+            this.consumerFuture = consumerPool.submit(new Consumer());
+        }
+    }
+
+    @Override
+    public void handle(T item, int rowNum) {
+        current.add(item);
+        if (current.size() >= batchSize) {
+            handOff();
+        }
+    }
+
+    /**
+     * 解析结束, 交出剩余的行并等待消费完毕
+     */
+    @SuppressWarnings("unchecked")
+    void finish() {
+        if (!current.isEmpty()) {
+            handOff();
+        }
+        if (consumerPool != null) {
+            put((List<T>) END);
+            try {
+                consumerFuture.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ExcelCastException(e);
+            } catch (ExecutionException e) {
+                fail(e.getCause());
+            }
+            checkError();
+        }
+    }
+
+    /**
+     * 关闭消费线程
+     */
+    void shutdown() {
+        if (consumerPool != null) {
+            consumerPool.shutdownNow();
+        }
+    }
+
+    // 交出当前批次
+    private void handOff() {
+        if (consumerPool == null) {
+            batchConsumer.accept(current);
+            current.clear();
+            return;
+        }
+        put(current);
+        current = takeFreeList();
+    }
+
+    private void put(List<T> list) {
+        try {
+            while (!fullLists.offer(list, 100, TimeUnit.MILLISECONDS)) {
+                checkError();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ExcelCastException(e);
+        }
+    }
+
+    // 取一个空闲的批次列表, 消费者尚未处理完上一批时等待
+    private List<T> takeFreeList() {
+        try {
+            while (true) {
+                checkError();
+                List<T> list = freeLists.poll(100, TimeUnit.MILLISECONDS);
+                if (list != null) {
+                    return list;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ExcelCastException(e);
+        }
+    }
+
+    private void fail(Throwable e) {
+        if (error == null) {
+            error = e;
+        }
+    }
+
+    private void checkError() {
+        Throwable e = error;
+        if (e != null) {
+            throw e instanceof RuntimeException ? (RuntimeException) e : new ExcelCastException(e);
+        }
+    }
+
+    /**
+     * 消费线程, 依次回调批量消费者
+     */
+    private class Consumer implements Runnable {
+
+        @Override
+        public void run() {
+            try {
+                while (true) {
+                    List<T> list = fullLists.take();
+                    if (list == END) {
+                        return;
+                    }
+                    try {
+                        batchConsumer.accept(list);
+                    } catch (Throwable e) {
+                        fail(e);
+                        return;
+                    }
+                    list.clear();
+                    freeLists.offer(list);
+                }
+            } catch (InterruptedException e) {
+                // 关闭时中断
+            }
+        }
+
+    }
+
+}
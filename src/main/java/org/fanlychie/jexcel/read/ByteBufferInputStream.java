@@ -0,0 +1,47 @@
+package org.fanlychie.jexcel.read;
+
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * 字节缓冲区输入流, 直接读取缓冲区的剩余内容, 不复制缓冲区
+ */
+final class ByteBufferInputStream extends InputStream {
+
+    private final ByteBuffer buffer;
+
+    ByteBufferInputStream(ByteBuffer buffer) {
+        this.buffer = buffer;
+    }
+
+    @Override
+    public int read() {
+        return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) {
+        if (len == 0) {
+            return 0;
+        }
+        if (!buffer.hasRemaining()) {
+            return -1;
+        }
+        len = Math.min(len, buffer.remaining());
+        buffer.get(b, off, len);
+        return len;
+    }
+
+    @Override
+    public long skip(long n) {
+        int k = (int) Math.max(0, Math.min(n, buffer.remaining()));
+        buffer.position(buffer.position() + k);
+        return k;
+    }
+
+    @Override
+    public int available() {
+        return buffer.remaining();
+    }
+
+}
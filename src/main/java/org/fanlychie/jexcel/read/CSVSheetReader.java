@@ -0,0 +1,313 @@
+package org.fanlychie.jexcel.read;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * CSV/TSV 拉取式读取器, 每条记录作为一行, 每个字段作为一个单元格, 每次调用 {@link #nextRow()} 只向前解析一行.
+ * 字节经 CharsetDecoder 分块解码到字符缓冲区, 字段直接在缓冲区中切分, 引号字段的转义就地还原,
+ * 只为需要解析的非空字段创建字符串. 支持引号包围的字段中含有分隔符、换行和 "" 转义
+ */
+public abstract class CSVSheetReader implements SheetRowReader {
+
+    /**
+     * 缓冲区大小
+     */
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final int EOF = -1;
+
+    private InputStream inputStream;
+
+    private CharsetDecoder decoder;
+
+    private char delimiter;
+
+    private ByteBuffer byteBuffer = ByteBuffer.allocate(BUFFER_SIZE);
+
+    private char[] chars = new char[BUFFER_SIZE];
+
+    /**
+     * 当前字段在字符缓冲区中的起始位置, 补充缓冲区时保留其后的字符
+     */
+    private int fieldStart;
+
+    /**
+     * 当前读取位置
+     */
+    private int pos;
+
+    /**
+     * 引号字段还原转义时的写入位置
+     */
+    private int write;
+
+    /**
+     * 字符缓冲区中有效字符的结束位置
+     */
+    private int limit;
+
+    private boolean inputEnded;
+
+    private boolean flushed;
+
+    private BitSet columns;
+
+    private int firstRow;
+
+    private int lastRow;
+
+    private ReadLimits readLimits;
+
+    private int row;
+
+    private boolean endOfDocument;
+
+    private boolean nextIsRow;
+
+    /**
+     * @param inputStream 输入流
+     * @param charset     字符编码
+     * @param delimiter   字段分隔符, 如 ',' 或 '\t'
+     */
+    public CSVSheetReader(InputStream inputStream, Charset charset, char delimiter) {
+        this.inputStream = inputStream;
+        this.delimiter = delimiter;
+        this.decoder = charset.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        // 读模式, 初始没有字节
+        this.byteBuffer.flip();
+    }
+
+    /**
+     * 向前解析一行, 该行的字段依次回调 {@link #postCellHandle(int, int, String, boolean)}
+     *
+     * @return 若已到达文件末尾则返回 false
+     * @throws IOException
+     */
+    @Override
+    public boolean nextRow() throws IOException {
+        if (endOfDocument) {
+            return false;
+        }
+        if ((lastRow > 0 && row >= lastRow) || !parseRecord()) {
+            endOfDocument = true;
+            endDocument();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * 解析整个文件
+     *
+     * @throws IOException
+     */
+    public void parse() throws IOException {
+        while (nextRow()) {
+            // 字段已逐行回调
+        }
+    }
+
+    /**
+     * 设置需要解析的列, 其余列的字段只切分不创建字符串
+     *
+     * @param columns 需要解析的列索引集合, 为 null 时解析所有的列
+     */
+    public void setColumns(BitSet columns) {
+        this.columns = columns;
+    }
+
+    /**
+     * 设置解析的行范围, 起始行之前的字段不创建字符串, 到达结束行时回调 {@link #endDocument()} 并停止解析
+     *
+     * @param firstRow 起始行号, 从1开始
+     * @param lastRow  结束行号, 从1开始, 小于1时解析到最后一行
+     */
+    public void setRowRange(int firstRow, int lastRow) {
+        this.firstRow = firstRow;
+        this.lastRow = lastRow;
+    }
+
+    /**
+     * 设置读取限制, 行数、列数及字段的长度在解析过程中逐步检查, 超过时抛出 {@link org.fanlychie.jexcel.exception.ReadLimitException}
+     *
+     * @param readLimits 读取限制, 为 null 时不限制
+     */
+    public void setReadLimits(ReadLimits readLimits) {
+        this.readLimits = readLimits;
+    }
+
+    /**
+     * 关闭读取器
+     */
+    @Override
+    public void close() {
+        endOfDocument = true;
+        try {
+            inputStream.close();
+        } catch (IOException e) {
+        }
+    }
+
+    /**
+     * 字段处理, 空字段不回调
+     *
+     * @param column 字段的列索引, 从0开始
+     * @param row    记录的行号, 从1开始
+     * @param value  字段的字符串值
+     * @param newRow 是否是新的一行
+     */
+    public void postCellHandle(int column, int row, String value, boolean newRow) {
+
+    }
+
+    /**
+     * 文件解析结束处理
+     */
+    public void endDocument() {
+
+    }
+
+    // 解析一条记录, 已到达文件末尾时返回 false
+    private boolean parseRecord() throws IOException {
+        fieldStart = pos;
+        if (pos == limit && !fill()) {
+            return false;
+        }
+        // 跳过 UTF-8 BOM
+        if (row == 0 && chars[pos] == '\uFEFF') {
+            fieldStart = ++pos;
+        }
+        ++row;
+        if (readLimits != null) {
+            readLimits.checkRow(row);
+        }
+        boolean wantedRow = row >= firstRow;
+        int column = 0;
+        while (true) {
+            int terminator;
+            fieldStart = pos;
+            if ((pos < limit || fill()) && chars[pos] == '"') {
+                terminator = parseQuoted();
+            } else {
+                terminator = parseUnquoted();
+                write = pos;
+            }
+            int length = write - fieldStart;
+            if (readLimits != null) {
+                readLimits.checkCellLength(length);
+            }
+            if (wantedRow && length > 0 && (columns == null || columns.get(column))) {
+                postCellHandle(column, row, new String(chars, fieldStart, length), nextIsRow);
+                nextIsRow = false;
+            }
+            fieldStart = pos;
+            if (terminator == delimiter) {
+                ++pos;
+                ++column;
+                if (readLimits != null) {
+                    readLimits.checkColumn(column);
+                }
+                continue;
+            }
+            if (terminator == '\r') {
+                ++pos;
+                fieldStart = pos;
+                if ((pos < limit || fill()) && chars[pos] == '\n') {
+                    ++pos;
+                }
+            } else if (terminator == '\n') {
+                ++pos;
+            }
+            nextIsRow = true;
+            return true;
+        }
+    }
+
+    // 切分不带引号的字段, 读到分隔符或换行为止, 返回结束字段的字符
+    private int parseUnquoted() throws IOException {
+        while (true) {
+            if (pos == limit && !fill()) {
+                return EOF;
+            }
+            char c = chars[pos];
+            if (c == delimiter || c == '\n' || c == '\r') {
+                return c;
+            }
+            ++pos;
+        }
+    }
+
+    // 切分带引号的字段, "" 就地还原为 ", 返回结束字段的字符
+    private int parseQuoted() throws IOException {
+        fieldStart = ++pos;
+        write = pos;
+        while (true) {
+            if (pos == limit && !fill()) {
+                return EOF;
+            }
+            char c = chars[pos++];
+            if (c == '"') {
+                if (pos == limit && !fill()) {
+                    return EOF;
+                }
+                if (chars[pos] != '"') {
+                    // 结束引号, 其后到分隔符之前的字符忽略
+                    return parseUnquoted();
+                }
+                ++pos;
+            }
+            chars[write++] = c;
+        }
+    }
+
+    // 补充字符缓冲区, 保留当前字段已读取的字符, 没有更多字符时返回 false
+    private boolean fill() throws IOException {
+        if (fieldStart > 0) {
+            System.arraycopy(chars, fieldStart, chars, 0, limit - fieldStart);
+            pos -= fieldStart;
+            write -= fieldStart;
+            limit -= fieldStart;
+            fieldStart = 0;
+        }
+        // 单个字段超过缓冲区大小, 至少留出两个字符的空间, 否则代理对无法解码, 解码器不会向前推进
+        if (chars.length - limit < 2) {
+            if (readLimits != null) {
+                readLimits.checkCellLength(limit);
+            }
+            chars = Arrays.copyOf(chars, chars.length << 1);
+        }
+        CharBuffer charBuffer = CharBuffer.wrap(chars, limit, chars.length - limit);
+        while (charBuffer.position() == limit && !flushed) {
+            if (!inputEnded) {
+                byteBuffer.compact();
+                int n = inputStream.read(byteBuffer.array(), byteBuffer.position(), byteBuffer.remaining());
+                if (n < 0) {
+                    inputEnded = true;
+                } else {
+                    byteBuffer.position(byteBuffer.position() + n);
+                }
+                byteBuffer.flip();
+            }
+            CoderResult result = decoder.decode(byteBuffer, charBuffer, inputEnded);
+            if (inputEnded && result.isUnderflow()) {
+                decoder.flush(charBuffer);
+                flushed = true;
+            }
+        }
+        int decoded = charBuffer.position() - limit;
+        limit = charBuffer.position();
+        return decoded > 0;
+    }
+
+}
@@ -0,0 +1,32 @@
+package org.fanlychie.jexcel.read;
+
+/**
+ * 单元格绑定器, 接收工作表解析出的单元格, 由不同的解析引擎共用
+ */
+interface CellBinder {
+
+    /**
+     * 绑定单元格
+     *
+     * @param column 单元格的列索引, 从0开始
+     * @param row    单元格的行号, 从1开始
+     * @param value  单元格的字符串值
+     */
+    void bindCell(int column, int row, String value);
+
+    /**
+     * 绑定原始值单元格
+     *
+     * @param column        单元格的列索引, 从0开始
+     * @param row           单元格的行号, 从1开始
+     * @param rawValue      单元格的原始数值
+     * @param dateFormatted 单元格样式是否为日期格式
+     */
+    void bindRawCell(int column, int row, String rawValue, boolean dateFormatted);
+
+    /**
+     * 工作表解析结束, 交出剩余的行
+     */
+    void flush();
+
+}
@@ -0,0 +1,22 @@
+package org.fanlychie.jexcel.read;
+
+import java.time.format.DateTimeFormatter;
+
+/**
+ * 日期格式记忆, 记住一列上次识别出的日期格式, 同一列的日期通常格式相同, 不必每次重新识别.
+ * DateTimeFormatter 不可变, 多个线程共用时最多重复识别, 不会出错
+ */
+final class DateFormatMemo {
+
+    volatile DateTimeFormatter formatter;
+
+    // 为每一列创建一个日期格式记忆
+    static DateFormatMemo[] newArray(int length) {
+        DateFormatMemo[] memos = new DateFormatMemo[length];
+        for (int i = 0; i < length; i++) {
+            memos[i] = new DateFormatMemo();
+        }
+        return memos;
+    }
+
+}
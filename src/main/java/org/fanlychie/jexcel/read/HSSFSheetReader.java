@@ -0,0 +1,459 @@
+package org.fanlychie.jexcel.read;
+
+import org.apache.poi.hssf.eventusermodel.FormatTrackingHSSFListener;
+import org.apache.poi.hssf.eventusermodel.HSSFListener;
+import org.apache.poi.hssf.eventusermodel.MissingRecordAwareHSSFListener;
+import org.apache.poi.hssf.eventusermodel.dummyrecord.LastCellOfRowDummyRecord;
+import org.apache.poi.hssf.record.BOFRecord;
+import org.apache.poi.hssf.record.BoolErrRecord;
+import org.apache.poi.hssf.record.CellValueRecordInterface;
+import org.apache.poi.hssf.record.EOFRecord;
+import org.apache.poi.hssf.record.FormulaRecord;
+import org.apache.poi.hssf.record.LabelRecord;
+import org.apache.poi.hssf.record.LabelSSTRecord;
+import org.apache.poi.hssf.record.NumberRecord;
+import org.apache.poi.hssf.record.Record;
+import org.apache.poi.hssf.record.RecordFactoryInputStream;
+import org.apache.poi.hssf.record.SSTRecord;
+import org.apache.poi.hssf.record.StringRecord;
+import org.apache.poi.ss.formula.eval.ErrorEval;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.ss.util.NumberToTextConverter;
+import org.fanlychie.jexcel.exception.ReadLimitException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.BitSet;
+
+/**
+ * HSSF(.xls) Sheet 拉取式读取器, 基于事件模型逐条读取工作簿记录流, 每次调用 {@link #nextRow()} 只向前解析一行.
+ * 工作簿的所有工作表位于同一个记录流中, 目标工作表之前的工作表记录直接跳过, 解析完目标工作表即停止.
+ * 工作表索引小于1时一次读完记录流, 依次解析所有的工作表, 通过 {@link #startSheet(int)} 和 {@link #endSheet(int)} 区分工作表
+ */
+public abstract class HSSFSheetReader implements SheetRowReader {
+
+    private InputStream workbookInputStream;
+
+    private RecordFactoryInputStream recordStream;
+
+    private FormatTrackingHSSFListener formatListener;
+
+    private int sheetIndex;
+
+    /**
+     * 是否解析所有的工作表
+     */
+    private boolean allSheets;
+
+    private SSTRecord sstRecord;
+
+    private BitSet columns;
+
+    private BitSet rawColumns;
+
+    private int firstRow;
+
+    private int lastRow;
+
+    private ReadLimits readLimits;
+
+    /**
+     * 已经过的工作表子流数量
+     */
+    private int sheetCount;
+
+    /**
+     * 子流的嵌套深度, 工作表中嵌入的图表有自己的 BOF 和 EOF
+     */
+    private int depth;
+
+    private boolean inGlobals;
+
+    private boolean inSheet;
+
+    /**
+     * 当前工作表已超过结束行, 跳过其余的记录
+     */
+    private boolean sheetStopped;
+
+    private boolean rowEnded;
+
+    private boolean endOfDocument;
+
+    private boolean nextIsRow;
+
+    /**
+     * 等待 StringRecord 取值的公式单元格, 没有时为 -1
+     */
+    private int formulaColumn = -1;
+
+    private int formulaRow;
+
+    /**
+     * @param workbookInputStream 工作簿记录流, 即 POIFS 中的 Workbook 文档
+     * @param sheetIndex          工作表索引, 从1开始, 小于1时解析所有的工作表
+     */
+    public HSSFSheetReader(InputStream workbookInputStream, int sheetIndex) {
+        this.workbookInputStream = workbookInputStream;
+        this.sheetIndex = sheetIndex;
+        this.allSheets = sheetIndex < 1;
+        this.formatListener = new FormatTrackingHSSFListener(new MissingRecordAwareHSSFListener(new RecordListener()));
+    }
+
+    /**
+     * 向前解析一行, 该行的单元格依次回调 {@link #postCellHandle(int, int, String, boolean)}
+     *
+     * @return 若已到达工作表末尾则返回 false
+     */
+    @Override
+    public boolean nextRow() {
+        if (endOfDocument) {
+            return false;
+        }
+        if (recordStream == null) {
+            openRecordStream();
+        }
+        rowEnded = false;
+        while (!endOfDocument) {
+            Record record = nextRecord();
+            if (record == null) {
+                endOfDocument = true;
+                break;
+            }
+            if (accept(record)) {
+                formatListener.processRecord(record);
+            }
+            if (depth == 0 && record.getSid() == EOFRecord.sid) {
+                if (inSheet) {
+                    if (allSheets) {
+                        endSheet(sheetCount);
+                    } else {
+                        endOfDocument = true;
+                    }
+                }
+                inGlobals = false;
+                inSheet = false;
+            }
+            if (rowEnded && !endOfDocument) {
+                return true;
+            }
+        }
+        endDocument();
+        return false;
+    }
+
+    /**
+     * 解析整个工作表
+     */
+    public void parse() {
+        while (nextRow()) {
+            // 单元格已逐行回调
+        }
+    }
+
+    /**
+     * 设置需要解析的列, 其余列的单元格不取值
+     *
+     * @param columns 需要解析的列索引集合, 为 null 时解析所有的列
+     */
+    public void setColumns(BitSet columns) {
+        this.columns = columns;
+    }
+
+    /**
+     * 设置直接输出原始值的列, 这些列的数值单元格不经过格式化, 通过
+     * {@link #postRawCellHandle(int, int, String, boolean, boolean)} 回调
+     *
+     * @param rawColumns 输出原始值的列索引集合, 为 null 时所有的列都输出格式化后的值
+     */
+    public void setRawColumns(BitSet rawColumns) {
+        this.rawColumns = rawColumns;
+    }
+
+    /**
+     * 设置解析的行范围, 起始行之前的单元格不取值, 到达结束行时回调 {@link #endDocument()} 并停止解析
+     *
+     * @param firstRow 起始行号, 从1开始
+     * @param lastRow  结束行号, 从1开始, 小于1时解析到最后一行
+     */
+    public void setRowRange(int firstRow, int lastRow) {
+        this.firstRow = firstRow;
+        this.lastRow = lastRow;
+    }
+
+    /**
+     * 设置读取限制, 须在开始解析之前设置. 共享字符串的数量在 POI 构造 SST 记录之前按记录头检查,
+     * 字符总数及每个字符串的长度在 SST 记录构造之后检查, 行号、列索引及单元格文本的长度在解析过程中逐步检查,
+     * 超过时抛出 {@link org.fanlychie.jexcel.exception.ReadLimitException}
+     *
+     * @param readLimits 读取限制, 为 null 时不限制
+     */
+    public void setReadLimits(ReadLimits readLimits) {
+        this.readLimits = readLimits;
+    }
+
+    /**
+     * 关闭读取器
+     */
+    @Override
+    public void close() {
+        endOfDocument = true;
+        try {
+            workbookInputStream.close();
+        } catch (IOException e) {
+        }
+    }
+
+    /**
+     * 单元格处理
+     *
+     * @param column 单元格的列索引, 从0开始
+     * @param row    单元格的行号, 从1开始
+     * @param value  单元格的字符串值
+     * @param newRow 是否是新的一行
+     */
+    public void postCellHandle(int column, int row, String value, boolean newRow) {
+
+    }
+
+    /**
+     * 原始值单元格处理, 用于 {@link #setRawColumns(BitSet)} 指定的列中的数值单元格, 值未经格式化.
+     * 默认按普通单元格处理
+     *
+     * @param column        单元格的列索引, 从0开始
+     * @param row           单元格的行号, 从1开始
+     * @param rawValue      单元格的原始数值
+     * @param dateFormatted 单元格样式是否为日期格式
+     * @param newRow        是否是新的一行
+     */
+    public void postRawCellHandle(int column, int row, String rawValue, boolean dateFormatted, boolean newRow) {
+        postCellHandle(column, row, rawValue, newRow);
+    }
+
+    /**
+     * 工作表开始处理, 只在解析所有的工作表时回调
+     *
+     * @param sheetIndex 工作表索引, 从1开始
+     */
+    public void startSheet(int sheetIndex) {
+
+    }
+
+    /**
+     * 工作表结束处理, 只在解析所有的工作表时回调
+     *
+     * @param sheetIndex 工作表索引, 从1开始
+     */
+    public void endSheet(int sheetIndex) {
+
+    }
+
+    /**
+     * 工作表解析结束处理, 解析所有的工作表时在记录流结束时回调
+     */
+    public void endDocument() {
+
+    }
+
+    // 首次解析时打开记录流, 限制共享字符串数量时先经过记录头检查
+    private void openRecordStream() {
+        try {
+            recordStream = new RecordFactoryInputStream(SSTHeaderInputStream.wrap(workbookInputStream, readLimits), false);
+        } catch (RuntimeException e) {
+            throw unwrap(e);
+        }
+    }
+
+    // 读取下一条记录
+    private Record nextRecord() {
+        try {
+            return recordStream.nextRecord();
+        } catch (RuntimeException e) {
+            throw unwrap(e);
+        }
+    }
+
+    // 记录构造过程中超过读取限制时 POI 会包装异常, 取出原异常
+    private static RuntimeException unwrap(RuntimeException e) {
+        for (Throwable cause = e.getCause(); cause != null; cause = cause.getCause()) {
+            if (cause instanceof ReadLimitException) {
+                return (ReadLimitException) cause;
+            }
+        }
+        return e;
+    }
+
+    // 是否将记录交给监听器, 只处理工作簿全局子流和目标工作表子流的顶层记录
+    private boolean accept(Record record) {
+        short sid = record.getSid();
+        if (sid == BOFRecord.sid) {
+            if (depth++ == 0) {
+                if (((BOFRecord) record).getType() == BOFRecord.TYPE_WORKBOOK) {
+                    inGlobals = true;
+                } else {
+                    inSheet = ++sheetCount == sheetIndex || allSheets;
+                    sheetStopped = false;
+                    nextIsRow = false;
+                    formulaColumn = -1;
+                    if (allSheets) {
+                        startSheet(sheetCount);
+                    }
+                }
+            }
+        } else if (sid == EOFRecord.sid) {
+            return depth-- == 1 && (inGlobals || inSheet && !sheetStopped);
+        }
+        return depth == 1 && (inGlobals || inSheet && !sheetStopped);
+    }
+
+    // 超过结束行, 解析所有的工作表时只跳过当前工作表其余的记录
+    private void stopSheet() {
+        if (allSheets) {
+            sheetStopped = true;
+        } else {
+            endOfDocument = true;
+        }
+    }
+
+    // 是否需要解析该单元格, 超过结束行时停止解析
+    private boolean isWanted(int column, int row) {
+        if (lastRow > 0 && row > lastRow) {
+            stopSheet();
+            return false;
+        }
+        if (readLimits != null) {
+            readLimits.checkRow(row);
+            readLimits.checkColumn(column);
+        }
+        return row >= firstRow && (columns == null || columns.get(column));
+    }
+
+    private void cell(int column, int row, String value) {
+        if (readLimits != null) {
+            readLimits.checkCellLength(value.length());
+        }
+        postCellHandle(column, row, value, nextIsRow);
+        nextIsRow = false;
+    }
+
+    // 检查共享字符串的数量、字符总数及每个字符串的长度
+    private void checkSharedStrings() {
+        int count = sstRecord.getNumUniqueStrings();
+        readLimits.checkSharedStrings(count, 0);
+        long chars = 0;
+        for (int i = 0; i < count; i++) {
+            int length = sstRecord.getString(i).getCharCount();
+            readLimits.checkCellLength(length);
+            chars += length;
+            readLimits.checkSharedStrings(count, chars);
+        }
+    }
+
+    private void numberCell(CellValueRecordInterface record, double value) {
+        int column = record.getColumn();
+        if (rawColumns != null && rawColumns.get(column)) {
+            int formatIndex = formatListener.getFormatIndex(record);
+            String formatString = formatListener.getFormatString(record);
+            boolean dateFormatted = formatString != null && DateUtil.isADateFormat(formatIndex, formatString);
+            postRawCellHandle(column, record.getRow() + 1, NumberToTextConverter.toText(value), dateFormatted, nextIsRow);
+            nextIsRow = false;
+        } else {
+            cell(column, record.getRow() + 1, formatListener.formatNumberDateCell(record));
+        }
+    }
+
+    private void formulaCell(FormulaRecord record) {
+        int column = record.getColumn();
+        int row = record.getRow() + 1;
+        switch (record.getCachedResultType()) {
+            case Cell.CELL_TYPE_NUMERIC:
+                numberCell(record, record.getValue());
+                break;
+            case Cell.CELL_TYPE_STRING:
+                // 字符串结果在随后的 StringRecord 中, 空字符串没有 StringRecord
+                if (record.hasCachedResultString()) {
+                    formulaColumn = column;
+                    formulaRow = row;
+                } else {
+                    cell(column, row, "");
+                }
+                break;
+            case Cell.CELL_TYPE_BOOLEAN:
+                cell(column, row, record.getCachedBooleanValue() ? "1" : "0");
+                break;
+            case Cell.CELL_TYPE_ERROR:
+                cell(column, row, "\"ERROR:" + ErrorEval.getText(record.getCachedErrorValue()) + '"');
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * 记录监听器, 接收经格式跟踪和缺失记录补全之后的记录
+     */
+    private class RecordListener implements HSSFListener {
+
+        @Override
+        public void processRecord(Record record) {
+            if (record instanceof LastCellOfRowDummyRecord) {
+                nextIsRow = true;
+                rowEnded = true;
+                // 已到达结束行, 不再读取后面的记录
+                if (lastRow > 0 && ((LastCellOfRowDummyRecord) record).getRow() + 1 >= lastRow) {
+                    stopSheet();
+                }
+                return;
+            }
+            if (record instanceof CellValueRecordInterface) {
+                CellValueRecordInterface cellRecord = (CellValueRecordInterface) record;
+                if (!isWanted(cellRecord.getColumn(), cellRecord.getRow() + 1)) {
+                    return;
+                }
+            }
+            switch (record.getSid()) {
+                case SSTRecord.sid:
+                    sstRecord = (SSTRecord) record;
+                    if (readLimits != null) {
+                        checkSharedStrings();
+                    }
+                    break;
+                case NumberRecord.sid:
+                    numberCell((NumberRecord) record, ((NumberRecord) record).getValue());
+                    break;
+                case FormulaRecord.sid:
+                    formulaCell((FormulaRecord) record);
+                    break;
+                case StringRecord.sid:
+                    if (formulaColumn >= 0) {
+                        cell(formulaColumn, formulaRow, ((StringRecord) record).getString());
+                        formulaColumn = -1;
+                    }
+                    break;
+                case LabelSSTRecord.sid:
+                    LabelSSTRecord labelSSTRecord = (LabelSSTRecord) record;
+                    cell(labelSSTRecord.getColumn(), labelSSTRecord.getRow() + 1,
+                            sstRecord.getString(labelSSTRecord.getSSTIndex()).getString());
+                    break;
+                case LabelRecord.sid:
+                    LabelRecord labelRecord = (LabelRecord) record;
+                    cell(labelRecord.getColumn(), labelRecord.getRow() + 1, labelRecord.getValue());
+                    break;
+                case BoolErrRecord.sid:
+                    BoolErrRecord boolErrRecord = (BoolErrRecord) record;
+                    if (boolErrRecord.isBoolean()) {
+                        cell(boolErrRecord.getColumn(), boolErrRecord.getRow() + 1, boolErrRecord.getBooleanValue() ? "1" : "0");
+                    } else {
+                        cell(boolErrRecord.getColumn(), boolErrRecord.getRow() + 1,
+                                "\"ERROR:" + ErrorEval.getText(boolErrRecord.getErrorValue()) + '"');
+                    }
+                    break;
+                default:
+                    break;
+            }
+        }
+
+    }
+
+}
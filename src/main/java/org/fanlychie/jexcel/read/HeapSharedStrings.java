@@ -0,0 +1,62 @@
+package org.fanlychie.jexcel.read;
+
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackagePart;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.usermodel.XSSFRelation;
+
+import javax.xml.stream.XMLStreamException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 堆内共享字符串表, 全部字符串加载在内存中
+ */
+final class HeapSharedStrings implements SharedStrings {
+
+    private List<String> entries;
+
+    HeapSharedStrings(ReadOnlySharedStringsTable sharedStringsTable) {
+        this.entries = sharedStringsTable.getItems();
+    }
+
+    /**
+     * 加载共享字符串表, 加载过程中按读取限制逐步检查, rPh 中的注音文本不计入字符串的值
+     *
+     * @param opcPackage Excel 文件包
+     * @param readLimits 读取限制, 为 null 时不限制
+     * @throws IOException
+     * @throws XMLStreamException
+     */
+    HeapSharedStrings(OPCPackage opcPackage, ReadLimits readLimits) throws IOException, XMLStreamException {
+        final List<String> entries = new ArrayList<>();
+        List<PackagePart> parts = opcPackage.getPartsByContentType(XSSFRelation.SHARED_STRINGS.getContentType());
+        if (!parts.isEmpty()) {
+            InputStream stream = parts.get(0).getInputStream();
+            try {
+                new SharedStringsParser(readLimits) {
+                    @Override
+                    void entry(String value) {
+                        entries.add(value);
+                    }
+                }.parse(stream);
+            } finally {
+                stream.close();
+            }
+        }
+        this.entries = entries;
+    }
+
+    @Override
+    public String getEntryAt(int index) {
+        return entries.get(index);
+    }
+
+    @Override
+    public int getCount() {
+        return entries.size();
+    }
+
+}
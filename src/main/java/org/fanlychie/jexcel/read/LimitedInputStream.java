@@ -0,0 +1,84 @@
+package org.fanlychie.jexcel.read;
+
+import org.fanlychie.jexcel.exception.ReadLimitException;
+import org.fanlychie.jexcel.exception.ReadLimitException.Limit;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * 限制读取字节数的输入流, 用于部件解压后的字节数限制, 超过时抛出 {@link ReadLimitException}
+ */
+final class LimitedInputStream extends FilterInputStream {
+
+    private final long maxBytes;
+
+    private long count;
+
+    private long mark;
+
+    private LimitedInputStream(InputStream in, long maxBytes) {
+        super(in);
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * 按读取限制包装输入流, 没有限制时原样返回
+     *
+     * @param in         输入流
+     * @param readLimits 读取限制, 可以为 null
+     * @return 返回限制读取字节数的输入流
+     */
+    static InputStream wrap(InputStream in, ReadLimits readLimits) {
+        if (readLimits == null || readLimits.getMaxPartBytes() <= 0) {
+            return in;
+        }
+        return new LimitedInputStream(in, readLimits.getMaxPartBytes());
+    }
+
+    @Override
+    public int read() throws IOException {
+        int b = in.read();
+        if (b >= 0) {
+            count(1);
+        }
+        return b;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        int n = in.read(b, off, len);
+        if (n > 0) {
+            count(n);
+        }
+        return n;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        long skipped = in.skip(n);
+        count(skipped);
+        return skipped;
+    }
+
+    @Override
+    public synchronized void mark(int readLimit) {
+        in.mark(readLimit);
+        mark = count;
+    }
+
+    @Override
+    public synchronized void reset() throws IOException {
+        in.reset();
+        count = mark;
+    }
+
+    private void count(long n) {
+        count += n;
+        if (count > maxBytes) {
+            throw new ReadLimitException(Limit.PART_BYTES, maxBytes, count);
+        }
+    }
+
+}
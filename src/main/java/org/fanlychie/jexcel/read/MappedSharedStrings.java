@@ -0,0 +1,257 @@
+package org.fanlychie.jexcel.read;
+
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackagePart;
+import org.apache.poi.xssf.usermodel.XSSFRelation;
+import org.fanlychie.jexcel.exception.ExcelCastException;
+
+import javax.xml.stream.XMLStreamException;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 磁盘共享字符串表, 加载时将字符串写出到临时的偏移索引文件和数据文件, 使用时通过内存映射按索引取出,
+ * 堆内只保留少量最近使用的字符串, 适用于共享字符串非常多的大文件. 使用完毕须调用 {@link #close()} 删除临时文件
+ */
+public class MappedSharedStrings implements SharedStrings, Closeable {
+
+    /**
+     * 默认缓存的字符串数量
+     */
+    private static final int DEFAULT_CACHE_SIZE = 1024;
+
+    /**
+     * 单个映射区段的大小
+     */
+    private static final int SEGMENT_SIZE = 1 << 30;
+
+    /**
+     * 偏移索引文件, 每个字符串占8个字节
+     */
+    private File indexFile;
+
+    /**
+     * 字符串数据文件, UTF-8 编码
+     */
+    private File dataFile;
+
+    private volatile MappedRegion index;
+
+    private volatile MappedRegion data;
+
+    private int count;
+
+    private Map<Integer, String> cache;
+
+    /**
+     * 构建磁盘共享字符串表, 临时文件存放在系统临时目录
+     *
+     * @param opcPackage Excel 文件包
+     */
+    public MappedSharedStrings(OPCPackage opcPackage) {
+        this(opcPackage, null, DEFAULT_CACHE_SIZE);
+    }
+
+    /**
+     * 构建磁盘共享字符串表, 临时文件存放在系统临时目录, 加载过程中按读取限制逐步检查
+     *
+     * @param opcPackage Excel 文件包
+     * @param readLimits 读取限制, 为 null 时不限制
+     */
+    public MappedSharedStrings(OPCPackage opcPackage, ReadLimits readLimits) {
+        this(opcPackage, null, DEFAULT_CACHE_SIZE, readLimits);
+    }
+
+    /**
+     * 构建磁盘共享字符串表
+     *
+     * @param opcPackage Excel 文件包
+     * @param tempDir    临时文件存放的目录, 为 null 时使用系统临时目录
+     * @param cacheSize  缓存的字符串数量
+     */
+    public MappedSharedStrings(OPCPackage opcPackage, File tempDir, int cacheSize) {
+        this(opcPackage, tempDir, cacheSize, null);
+    }
+
+    /**
+     * 构建磁盘共享字符串表, 加载过程中按读取限制逐步检查, 超过时删除临时文件并抛出
+     * {@link org.fanlychie.jexcel.exception.ReadLimitException}
+     *
+     * @param opcPackage Excel 文件包
+     * @param tempDir    临时文件存放的目录, 为 null 时使用系统临时目录
+     * @param cacheSize  缓存的字符串数量
+     * @param readLimits 读取限制, 为 null 时不限制
+     */
+    public MappedSharedStrings(OPCPackage opcPackage, File tempDir, final int cacheSize, ReadLimits readLimits) {
+        this.cache = new LinkedHashMap<Integer, String>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, String> eldest) {
+                return size() > cacheSize;
+            }
+        };
+        try {
+            this.indexFile = File.createTempFile("jexcel-sst-", ".idx", tempDir);
+            this.dataFile = File.createTempFile("jexcel-sst-", ".dat", tempDir);
+            List<PackagePart> parts = opcPackage.getPartsByContentType(XSSFRelation.SHARED_STRINGS.getContentType());
+            if (!parts.isEmpty()) {
+                InputStream stream = parts.get(0).getInputStream();
+                try {
+                    spill(stream, readLimits);
+                } finally {
+                    stream.close();
+                }
+            } else {
+                spill(null, readLimits);
+            }
+            this.index = new MappedRegion(indexFile);
+            this.data = new MappedRegion(dataFile);
+        } catch (RuntimeException e) {
+            close();
+            throw e;
+        } catch (Throwable e) {
+            close();
+            throw new ExcelCastException(e);
+        }
+    }
+
+    @Override
+    public String getEntryAt(int idx) {
+        MappedRegion index = this.index;
+        MappedRegion data = this.data;
+        if (index == null || data == null) {
+            throw new IllegalStateException("shared strings table is closed");
+        }
+        if (idx < 0 || idx >= count) {
+            throw new IndexOutOfBoundsException("shared string index : " + idx + ", count : " + count);
+        }
+        synchronized (cache) {
+            String value = cache.get(idx);
+            if (value != null) {
+                return value;
+            }
+        }
+        long start = index.getLong((long) idx << 3);
+        long end = index.getLong((long) (idx + 1) << 3);
+        String value = new String(data.getBytes(start, (int) (end - start)), StandardCharsets.UTF_8);
+        synchronized (cache) {
+            cache.put(idx, value);
+        }
+        return value;
+    }
+
+    @Override
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * 关闭并删除临时文件. JDK 没有公开的解除内存映射的方法, 映射在缓冲区被回收之前一直有效,
+     * 部分平台(如 Windows)因此无法立即删除文件, 此时改为在 JVM 退出时删除
+     */
+    @Override
+    public void close() {
+        index = null;
+        data = null;
+        deleteTempFile(indexFile);
+        deleteTempFile(dataFile);
+        synchronized (cache) {
+            cache.clear();
+        }
+    }
+
+    // 将字符串逐条写出到临时文件
+    private void spill(InputStream stream, ReadLimits readLimits) throws IOException, XMLStreamException {
+        final DataOutputStream indexOut = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(indexFile)));
+        final OutputStream dataOut = new BufferedOutputStream(new FileOutputStream(dataFile));
+        try {
+            indexOut.writeLong(0);
+            if (stream != null) {
+                SharedStringsParser parser = new SharedStringsParser(readLimits) {
+                    private long offset;
+
+                    @Override
+                    void entry(String value) throws IOException {
+                        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+                        dataOut.write(bytes);
+                        offset += bytes.length;
+                        indexOut.writeLong(offset);
+                    }
+                };
+                parser.parse(stream);
+                count = parser.getCount();
+            }
+        } finally {
+            indexOut.close();
+            dataOut.close();
+        }
+    }
+
+    private static void deleteTempFile(File file) {
+        if (file != null && !file.delete() && file.exists()) {
+            // 映射未释放时部分平台无法立即删除
+            file.deleteOnExit();
+        }
+    }
+
+    /**
+     * 只读的内存映射区域, 超过 {@link #SEGMENT_SIZE} 的文件按区段映射
+     */
+    private static final class MappedRegion {
+
+        private final MappedByteBuffer[] segments;
+
+        MappedRegion(File file) throws IOException {
+            RandomAccessFile raf = new RandomAccessFile(file, "r");
+            try {
+                FileChannel channel = raf.getChannel();
+                long size = channel.size();
+                int segmentCount = (int) ((size + SEGMENT_SIZE - 1) / SEGMENT_SIZE);
+                segments = new MappedByteBuffer[segmentCount];
+                for (int i = 0; i < segmentCount; i++) {
+                    long position = (long) i * SEGMENT_SIZE;
+                    segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(SEGMENT_SIZE, size - position));
+                }
+            } finally {
+                raf.close();
+            }
+        }
+
+        // 偏移按8字节对齐, 不会跨越区段
+        long getLong(long position) {
+            return segments[(int) (position / SEGMENT_SIZE)].getLong((int) (position % SEGMENT_SIZE));
+        }
+
+        // 按区段批量复制, 只在跨越区段时分段, 使用副本避免修改共享的读取位置
+        byte[] getBytes(long position, int length) {
+            byte[] bytes = new byte[length];
+            int offset = 0;
+            while (offset < length) {
+                long p = position + offset;
+                int index = (int) (p / SEGMENT_SIZE);
+                int start = (int) (p % SEGMENT_SIZE);
+                int n = Math.min(length - offset, segments[index].limit() - start);
+                ByteBuffer segment = segments[index].duplicate();
+                segment.position(start);
+                segment.get(bytes, offset, n);
+                offset += n;
+            }
+            return bytes;
+        }
+
+    }
+
+}
@@ -0,0 +1,93 @@
+package org.fanlychie.jexcel.read;
+
+import org.fanlychie.jexcel.exception.ExcelCastException;
+import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.DefaultHandler;
+
+import javax.xml.XMLConstants;
+import javax.xml.parsers.SAXParserFactory;
+import javax.xml.stream.XMLInputFactory;
+
+/**
+ * 解析器池, 每个线程复用一个 SAX 解析器和一个 StAX 工厂, 不再为每次解析创建工厂.
+ * 两种解析器都不处理 DTD 和外部实体, SAX 解析器遇到 DOCTYPE 声明即报错
+ */
+final class ParserPool {
+
+    private static final SAXParserFactory SAX_PARSER_FACTORY = newSaxParserFactory();
+
+    private static final DefaultHandler EMPTY_HANDLER = new DefaultHandler();
+
+    private static final ThreadLocal<XMLReader> SAX_READER = new ThreadLocal<>();
+
+    private static final ThreadLocal<XMLInputFactory> INPUT_FACTORY = new ThreadLocal<XMLInputFactory>() {
+        @Override
+        protected XMLInputFactory initialValue() {
+            XMLInputFactory inputFactory = XMLInputFactory.newInstance();
+            inputFactory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+            inputFactory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+            return inputFactory;
+        }
+    };
+
+    /**
+     * 获取当前线程的 SAX 解析器, 使用完毕须调用 {@link #release(XMLReader)}
+     *
+     * @return 返回 SAX 解析器
+     */
+    static XMLReader saxReader() {
+        XMLReader reader = SAX_READER.get();
+        if (reader != null) {
+            // 解析过程中嵌套使用时创建新的解析器
+            SAX_READER.remove();
+            return reader;
+        }
+        try {
+            synchronized (SAX_PARSER_FACTORY) {
+                return SAX_PARSER_FACTORY.newSAXParser().getXMLReader();
+            }
+        } catch (Exception e) {
+            throw new ExcelCastException(e);
+        }
+    }
+
+    /**
+     * 归还 SAX 解析器, 解除对内容处理器的引用
+     *
+     * @param reader SAX 解析器
+     */
+    static void release(XMLReader reader) {
+        reader.setContentHandler(EMPTY_HANDLER);
+        SAX_READER.set(reader);
+    }
+
+    /**
+     * 获取当前线程的 StAX 工厂
+     *
+     * @return 返回 StAX 工厂
+     */
+    static XMLInputFactory inputFactory() {
+        return INPUT_FACTORY.get();
+    }
+
+    // 开启安全处理, 禁止 DOCTYPE 声明及外部实体
+    private static SAXParserFactory newSaxParserFactory() {
+        SAXParserFactory factory = SAXParserFactory.newInstance();
+        try {
+            factory.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING, true);
+            factory.setFeature("http://apache.org/xml/features/disallow-doctype-decl", true);
+            factory.setFeature("http://xml.org/sax/features/external-general-entities", false);
+            factory.setFeature("http://xml.org/sax/features/external-parameter-entities", false);
+            factory.setFeature("http://apache.org/xml/features/nonvalidating/load-external-dtd", false);
+        } catch (Exception e) {
+            throw new ExcelCastException(e);
+        }
+        factory.setXIncludeAware(false);
+        return factory;
+    }
+
+    private ParserPool() {
+
+    }
+
+}
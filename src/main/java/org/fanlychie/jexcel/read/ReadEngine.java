@@ -0,0 +1,18 @@
+package org.fanlychie.jexcel.read;
+
+/**
+ * 工作表解析引擎枚举
+ */
+public enum ReadEngine {
+
+    /**
+     * JAXP SAX 解析, 缺省的解析引擎
+     */
+    SAX,
+
+    /**
+     * 字节扫描解析, 直接扫描工作表 XML 的字节, 只识别单元格相关的元素, 吞吐量更高
+     */
+    SCANNER
+
+}
@@ -0,0 +1,163 @@
+package org.fanlychie.jexcel.read;
+
+import org.fanlychie.jexcel.exception.ReadLimitException;
+import org.fanlychie.jexcel.exception.ReadLimitException.Limit;
+
+/**
+ * 读取限制, 防止超大或解压炸弹文件耗尽内存和 CPU. 各项限制在流式解析的过程中逐步计数,
+ * 超过限制时立即抛出 {@link ReadLimitException} 停止解析. 小于1的限制表示不限制
+ */
+public class ReadLimits {
+
+    /**
+     * 单个部件解压后的最大字节数
+     */
+    private long maxPartBytes;
+
+    /**
+     * 共享字符串的最大数量
+     */
+    private int maxSharedStrings;
+
+    /**
+     * 共享字符串的最大字符总数
+     */
+    private long maxSharedStringChars;
+
+    /**
+     * 最大行数
+     */
+    private int maxRows;
+
+    /**
+     * 最大列数
+     */
+    private int maxColumns;
+
+    /**
+     * 单元格文本的最大长度
+     */
+    private int maxCellLength;
+
+    /**
+     * 设置单个部件解压后的最大字节数, 包括工作表、共享字符串表, .xls 文件的工作簿记录流及 CSV 文件
+     *
+     * @param maxPartBytes 最大字节数
+     * @return 返回当前对象
+     */
+    public ReadLimits setMaxPartBytes(long maxPartBytes) {
+        this.maxPartBytes = maxPartBytes;
+        return this;
+    }
+
+    /**
+     * 设置共享字符串的最大数量
+     *
+     * @param maxSharedStrings 最大数量
+     * @return 返回当前对象
+     */
+    public ReadLimits setMaxSharedStrings(int maxSharedStrings) {
+        this.maxSharedStrings = maxSharedStrings;
+        return this;
+    }
+
+    /**
+     * 设置共享字符串的最大字符总数
+     *
+     * @param maxSharedStringChars 最大字符总数
+     * @return 返回当前对象
+     */
+    public ReadLimits setMaxSharedStringChars(long maxSharedStringChars) {
+        this.maxSharedStringChars = maxSharedStringChars;
+        return this;
+    }
+
+    /**
+     * 设置最大行数, 行号超过最大行数时停止解析
+     *
+     * @param maxRows 最大行数
+     * @return 返回当前对象
+     */
+    public ReadLimits setMaxRows(int maxRows) {
+        this.maxRows = maxRows;
+        return this;
+    }
+
+    /**
+     * 设置最大列数, 列索引达到最大列数时停止解析
+     *
+     * @param maxColumns 最大列数
+     * @return 返回当前对象
+     */
+    public ReadLimits setMaxColumns(int maxColumns) {
+        this.maxColumns = maxColumns;
+        return this;
+    }
+
+    /**
+     * 设置单元格文本的最大长度, 包括共享字符串
+     *
+     * @param maxCellLength 最大长度
+     * @return 返回当前对象
+     */
+    public ReadLimits setMaxCellLength(int maxCellLength) {
+        this.maxCellLength = maxCellLength;
+        return this;
+    }
+
+    public long getMaxPartBytes() {
+        return maxPartBytes;
+    }
+
+    public int getMaxSharedStrings() {
+        return maxSharedStrings;
+    }
+
+    public long getMaxSharedStringChars() {
+        return maxSharedStringChars;
+    }
+
+    public int getMaxRows() {
+        return maxRows;
+    }
+
+    public int getMaxColumns() {
+        return maxColumns;
+    }
+
+    public int getMaxCellLength() {
+        return maxCellLength;
+    }
+
+    // 检查行号
+    void checkRow(int row) {
+        if (maxRows > 0 && row > maxRows) {
+            throw new ReadLimitException(Limit.ROWS, maxRows, row);
+        }
+    }
+
+    // 检查列索引
+    void checkColumn(int column) {
+        if (maxColumns > 0 && column >= maxColumns) {
+            throw new ReadLimitException(Limit.COLUMNS, maxColumns, column + 1L);
+        }
+    }
+
+    // 检查单元格文本的长度
+    void checkCellLength(long length) {
+        if (maxCellLength > 0 && length > maxCellLength) {
+            throw new ReadLimitException(Limit.CELL_LENGTH, maxCellLength, length);
+        }
+    }
+
+    // 检查共享字符串的数量和字符总数
+    void checkSharedStrings(int count, long chars) {
+        if (maxSharedStrings > 0 && count > maxSharedStrings) {
+            throw new ReadLimitException(Limit.SHARED_STRINGS, maxSharedStrings, count);
+        }
+        if (maxSharedStringChars > 0 && chars > maxSharedStringChars) {
+            throw new ReadLimitException(Limit.SHARED_STRING_CHARS, maxSharedStringChars, chars);
+        }
+    }
+
+}
@@ -1,46 +1,95 @@
 package org.fanlychie.jexcel.read;
 
 import org.apache.poi.openxml4j.opc.OPCPackage;
-import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.poifs.filesystem.NPOIFSFileSystem;
 import org.apache.poi.xssf.eventusermodel.XSSFReader;
-import org.apache.poi.xssf.eventusermodel.XSSFReader.SheetIterator;
-import org.apache.poi.xssf.model.StylesTable;
 import org.fanlychie.jexcel.annotation.AnnotationHandler;
 import org.fanlychie.jexcel.annotation.CellField;
 import org.fanlychie.jexcel.exception.ExcelCastException;
 import org.fanlychie.jexcel.exception.ReadExcelException;
-import org.fanlychie.jreflect.BeanDescriptor;
+import org.reactivestreams.Publisher;
 import org.xml.sax.InputSource;
 import org.xml.sax.SAXException;
 import org.xml.sax.XMLReader;
 
-import javax.xml.parsers.SAXParserFactory;
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
- * 可读的 Excel, 用于读取 Excel 文件
+ * 可读的 Excel, 用于读取 Excel 文件, 按文件头自动识别 .xlsx 和 .xls 格式, 也可按同样的方式读取 CSV 文件
  * Created by fanlychie on 2017/3/5.
  */
-public class ReadableExcel {
+public class ReadableExcel implements Closeable {
 
-    private StylesTable stylesTable;
+    private OPCPackage opcPackage;
 
-    private SheetIterator sheetIterator;
+    private NPOIFSFileSystem fileSystem;
 
-    private ReadOnlySharedStringsTable sharedStringsTable;
+    private Charset csvCharset;
+
+    private char csvDelimiter;
+
+    private StyleFormats styleFormats;
+
+    private SheetCatalog sheetCatalog;
+
+    private SharedStrings sharedStrings;
+
+    private boolean mappedSharedStrings;
+
+    private boolean rawNumericValues;
+
+    private ReadEngine readEngine = ReadEngine.SAX;
+
+    private ReadLimits readLimits;
 
     private int startRow;
 
-    private Map<Integer, CellField> cellFieldMap;
+    private int endRow;
+
+    private int firstRow;
+
+    private int lastRow;
+
+    private int headerRow;
+
+    /**
+     * 按列索引存放的单元格字段, 没有字段的列为 null
+     */
+    private CellField[] cellFields;
+
+    private BitSet cellColumns;
+
+    private BitSet rawColumns;
 
-    private BeanDescriptor beanDescriptor;
+    private Class<?> targetClass;
+
+    private List<CellField> cellFieldList;
 
     /**
      * 构建一个可读的 Excel 对象
@@ -49,11 +98,7 @@ public class ReadableExcel {
      */
     public ReadableExcel(File excelFile) {
         try {
-            OPCPackage opcPackage = OPCPackage.open(excelFile);
-            XSSFReader reader = new XSSFReader(opcPackage);
-            this.sharedStringsTable = new ReadOnlySharedStringsTable(opcPackage);
-            this.stylesTable = reader.getStylesTable();
-            this.sheetIterator = (SheetIterator) reader.getSheetsData();
+            openFile(excelFile);
         } catch (Throwable e) {
             throw new ExcelCastException(e);
         }
@@ -68,6 +113,73 @@ public class ReadableExcel {
         this(new File(excelFilePath));
     }
 
+    /**
+     * 构建一个可读的 Excel 对象, 默认文件系统中的文件按需读取所需的部件, 其余文件系统的路径按输入流读取
+     *
+     * @param excelPath Excel 文件路径
+     */
+    public ReadableExcel(Path excelPath) {
+        try {
+            if (excelPath.getFileSystem() == FileSystems.getDefault()) {
+                openFile(excelPath.toFile());
+            } else {
+                InputStream stream = Files.newInputStream(excelPath);
+                try {
+                    openStream(stream);
+                } finally {
+                    stream.close();
+                }
+            }
+        } catch (Throwable e) {
+            throw new ExcelCastException(e);
+        }
+    }
+
+    /**
+     * 构建一个可读的 Excel 对象, 直接从输入流读取, 不写出临时文件. 输入流由调用方关闭
+     *
+     * @param excelInputStream Excel 输入流
+     */
+    public ReadableExcel(InputStream excelInputStream) {
+        try {
+            openStream(excelInputStream);
+        } catch (Throwable e) {
+            throw new ExcelCastException(e);
+        }
+    }
+
+    /**
+     * 构建一个可读的 Excel 对象, 直接从字节数组读取, 不写出临时文件
+     *
+     * @param excelBytes Excel 文件内容
+     */
+    public ReadableExcel(byte[] excelBytes) {
+        this(new ByteArrayInputStream(excelBytes));
+    }
+
+    /**
+     * 构建一个可读的 Excel 对象, 直接从缓冲区的剩余内容读取, 不写出临时文件, 不改变缓冲区的位置
+     *
+     * @param excelBuffer Excel 文件内容
+     */
+    public ReadableExcel(ByteBuffer excelBuffer) {
+        this(new ByteBufferInputStream(excelBuffer.duplicate()));
+    }
+
+    /**
+     * 构建一个可读的 CSV 对象, 整个文件作为唯一的工作表, 每条记录为一行, 每个字段为一个单元格,
+     * 与 Excel 文件使用相同的 {@link org.fanlychie.jexcel.annotation.Cell} 绑定
+     *
+     * @param csvPath   CSV 文件路径
+     * @param charset   文件编码
+     * @param delimiter 字段分隔符, CSV 为 ',', TSV 为 '\t'
+     */
+    public ReadableExcel(Path csvPath, Charset charset, char delimiter) {
+        this.csvCharset = charset;
+        this.csvDelimiter = delimiter;
+        this.sheetCatalog = new SheetCatalog(csvPath);
+    }
+
     /**
      * 解析工作表
      *
@@ -77,21 +189,215 @@ public class ReadableExcel {
      * @return 返回解析的结果列表
      */
     public <T> List<T> parseSheetAt(int index, Class<T> targetClass) {
+        final List<T> list = new ArrayList<>();
+        parseSheetAt(index, targetClass, new RowHandler<T>() {
+            @Override
+            public void handle(T item, int rowNum) {
+                list.add(item);
+            }
+        });
+        return list;
+    }
+
+    /**
+     * 流式解析工作表, 每解析完成一行即回调行处理器, 解析过程不保留已处理的行数据
+     *
+     * @param index       工作表索引, 从1开始
+     * @param targetClass 目标类型
+     * @param rowHandler  行处理器
+     * @param <T>
+     */
+    public <T> void parseSheetAt(int index, Class<T> targetClass, RowHandler<T> rowHandler) {
         init(targetClass);
-        int sheetCount = 1;
-        while (true) {
-            if (sheetIterator.hasNext()) {
-                if (index == sheetCount) {
-                    return processSheet(targetClass);
-                } else {
-                    ++sheetCount;
-                    sheetIterator.next();
-                }
-            } else {
-                break;
+        processSheet(index, openSheet(index), rowHandler);
+    }
+
+    /**
+     * 批量解析工作表, 每解析完成一批行数据即回调批量消费者, 批次列表循环复用
+     *
+     * @param index         工作表索引, 从1开始
+     * @param targetClass   目标类型
+     * @param batchSize     每批的行数
+     * @param batchConsumer 批量消费者
+     * @param <T>
+     */
+    public <T> void parseSheetInBatches(int index, Class<T> targetClass, int batchSize, BatchConsumer<T> batchConsumer) {
+        parseSheetInBatches(index, targetClass, batchSize, batchConsumer, false);
+    }
+
+    /**
+     * 批量解析工作表, 每解析完成一批行数据即回调批量消费者, 批次列表循环复用.
+     * 异步模式下由单独的线程回调批量消费者, 解析下一批的同时消费当前批, 消费者不会被同时回调
+     *
+     * @param index         工作表索引, 从1开始
+     * @param targetClass   目标类型
+     * @param batchSize     每批的行数
+     * @param batchConsumer 批量消费者
+     * @param async         是否异步回调批量消费者
+     * @param <T>
+     */
+    public <T> void parseSheetInBatches(int index, Class<T> targetClass, int batchSize, BatchConsumer<T> batchConsumer, boolean async) {
+        BatchRowHandler<T> batchRowHandler = new BatchRowHandler<>(batchSize, batchConsumer, async);
+        try {
+            init(targetClass);
+            processSheet(index, openSheet(index), batchRowHandler);
+            batchRowHandler.finish();
+        } finally {
+            batchRowHandler.shutdown();
+        }
+    }
+
+    /**
+     * 按名称解析工作表
+     *
+     * @param sheetName   工作表名称
+     * @param targetClass 目标类型
+     * @param <T>
+     * @return 返回解析的结果列表
+     */
+    public <T> List<T> parseSheet(String sheetName, Class<T> targetClass) {
+        return parseSheetAt(getSheetCatalog().indexOf(sheetName), targetClass);
+    }
+
+    /**
+     * 按名称流式解析工作表, 每解析完成一行即回调行处理器
+     *
+     * @param sheetName   工作表名称
+     * @param targetClass 目标类型
+     * @param rowHandler  行处理器
+     * @param <T>
+     */
+    public <T> void parseSheet(String sheetName, Class<T> targetClass, RowHandler<T> rowHandler) {
+        parseSheetAt(getSheetCatalog().indexOf(sheetName), targetClass, rowHandler);
+    }
+
+    /**
+     * 按工作表描述解析工作表, 只解析起始行号到结束行号之间的行, 超过结束行号即停止解析
+     *
+     * @param sheet       工作表描述, 设置了名称时按名称查找工作表, 未设置起始行号时使用 {@link #setStartRow(int)} 的设置
+     * @param targetClass 目标类型
+     * @param <T>
+     * @return 返回解析的结果列表
+     */
+    public <T> List<T> parseSheet(ReadableSheet sheet, Class<T> targetClass) {
+        final List<T> list = new ArrayList<>();
+        parseSheet(sheet, targetClass, new RowHandler<T>() {
+            @Override
+            public void handle(T item, int rowNum) {
+                list.add(item);
             }
+        });
+        return list;
+    }
+
+    /**
+     * 按工作表描述流式解析工作表, 只解析起始行号到结束行号之间的行, 超过结束行号即停止解析
+     *
+     * @param sheet       工作表描述, 设置了名称时按名称查找工作表, 未设置起始行号时使用 {@link #setStartRow(int)} 的设置
+     * @param targetClass 目标类型
+     * @param rowHandler  行处理器
+     * @param <T>
+     */
+    public <T> void parseSheet(ReadableSheet sheet, Class<T> targetClass, RowHandler<T> rowHandler) {
+        init(targetClass);
+        if (sheet.getFirstRowNum() > 0) {
+            firstRow = sheet.getFirstRowNum();
+        }
+        if (sheet.getLastRowNum() > 0) {
+            lastRow = sheet.getLastRowNum();
+        }
+        // 名称优先, ReadableSheet 的索引从0开始
+        int index = sheet.getName() != null ? getSheetCatalog().indexOf(sheet.getName()) : sheet.getIndex() + 1;
+        processSheet(index, openSheet(index), rowHandler);
+    }
+
+    /**
+     * 流水线解析工作表, 由当前线程解析工作表的行, 多个工作线程并行转换单元格的值并绑定对象, 结果按行的顺序返回.
+     * 适用于日期、数值等需要大量转换的列较多的大工作表
+     *
+     * @param index       工作表索引, 从1开始
+     * @param targetClass 目标类型
+     * @param workers     转换绑定的工作线程数量, 超过可用处理器数量时按可用处理器数量创建
+     * @param <T>
+     * @return 返回解析的结果列表
+     */
+    public <T> List<T> parseSheetConcurrently(int index, Class<T> targetClass, int workers) {
+        final List<T> list = new ArrayList<>();
+        parseSheetConcurrently(index, targetClass, workers, new RowHandler<T>() {
+            @Override
+            public void handle(T item, int rowNum) {
+                list.add(item);
+            }
+        });
+        return list;
+    }
+
+    /**
+     * 流水线解析工作表, 由当前线程解析工作表的行, 多个工作线程并行转换单元格的值并绑定对象,
+     * 绑定完成的对象按行的顺序回调行处理器, 行处理器可能在不同的线程中被回调, 但不会被同时回调
+     *
+     * @param index       工作表索引, 从1开始
+     * @param targetClass 目标类型
+     * @param workers     转换绑定的工作线程数量, 超过可用处理器数量时按可用处理器数量创建
+     * @param rowHandler  行处理器
+     * @param <T>
+     */
+    public <T> void parseSheetConcurrently(int index, Class<T> targetClass, int workers, RowHandler<T> rowHandler) {
+        if (workers < 1) {
+            throw new IllegalArgumentException("workers must be greater than 0");
+        }
+        // 转换绑定是计算密集的, 线程数超过处理器数量没有收益
+        workers = Math.min(workers, Runtime.getRuntime().availableProcessors());
+        init(targetClass);
+        InputStream stream = openSheet(index);
+        RowPipeline<T> rowPipeline = new RowPipeline<>(targetClass, cellFields, firstRow, workers, rowHandler);
+        try {
+            parseSheet(index, stream, rowPipeline);
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new ExcelCastException(e);
+        } finally {
+            rowPipeline.shutdown();
+            try {
+                stream.close();
+            } catch (IOException e) {}
+        }
+    }
+
+    /**
+     * 按行定义流式解析工作表, 不需要 @Cell 注解的类. 每解析完成一行即以行视图回调行处理器,
+     * 所有的行共用一个行视图, 回调返回后即被下一行覆盖, 解析过程不创建对象
+     *
+     * @param index      工作表索引, 从1开始
+     * @param rowSchema  行定义
+     * @param rowHandler 行处理器
+     */
+    public void parseSheetAt(int index, RowSchema rowSchema, RowHandler<SheetRow> rowHandler) {
+        init(rowSchema.getColumns());
+        InputStream stream = openSheet(index);
+        try {
+            parseSheet(index, stream, new SheetRowBinder(cellFieldList, cellFields, firstRow, rowHandler));
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new ExcelCastException(e);
+        } finally {
+            try {
+                stream.close();
+            } catch (IOException e) {}
         }
-        throw new ReadExcelException("can not found sheet index : " + index);
+    }
+
+    /**
+     * 按名称及行定义流式解析工作表, 每解析完成一行即以行视图回调行处理器
+     *
+     * @param sheetName  工作表名称
+     * @param rowSchema  行定义
+     * @param rowHandler 行处理器
+     */
+    public void parseSheet(String sheetName, RowSchema rowSchema, RowHandler<SheetRow> rowHandler) {
+        parseSheetAt(getSheetCatalog().indexOf(sheetName), rowSchema, rowHandler);
     }
 
     /**
@@ -102,12 +408,214 @@ public class ReadableExcel {
      * @return 返回解析的结果列表
      */
     public <T> List<T> parseAllSheet(Class<T> targetClass) {
+        final List<T> list = new LinkedList<>();
+        parseAllSheet(targetClass, new RowHandler<T>() {
+            @Override
+            public void handle(T item, int rowNum) {
+                list.add(item);
+            }
+        });
+        return list;
+    }
+
+    /**
+     * 流式解析所有的工作表, 每解析完成一行即回调行处理器, 解析过程不保留已处理的行数据.
+     * .xls 文件的所有工作表位于同一个记录流中, 只读一遍记录流, 按工作表分别绑定
+     *
+     * @param targetClass 目标类型
+     * @param rowHandler  行处理器
+     * @param <T>
+     */
+    public <T> void parseAllSheet(Class<T> targetClass, RowHandler<T> rowHandler) {
         init(targetClass);
-        List<T> list = new LinkedList<>();
-        list.addAll(processSheet(targetClass));
+        if (getSheetCatalog().isHSSF()) {
+            parseAllHSSFSheet(rowHandler, null);
+            return;
+        }
+        for (int i = 1; i <= getSheetCatalog().size(); i++) {
+            processSheet(i, openSheet(i), rowHandler);
+        }
+    }
+
+    /**
+     * 并行解析所有的工作表, 每个工作表由一个工作线程解析, 结果按工作表的顺序合并返回
+     *
+     * @param targetClass 目标类型
+     * @param executor    执行解析的线程池, 为 null 时使用 {@link ForkJoinPool#commonPool()}
+     * @param <T>
+     * @return 返回解析的结果列表
+     */
+    public <T> List<T> parseAllSheet(Class<T> targetClass, Executor executor) {
+        final List<List<T>> sheets = new ArrayList<>();
+        parseAllSheet(targetClass, executor, new SheetHandler<T>() {
+            @Override
+            public void handle(int sheetIndex, List<T> rows) {
+                synchronized (sheets) {
+                    while (sheets.size() < sheetIndex) {
+                        sheets.add(null);
+                    }
+                    sheets.set(sheetIndex - 1, rows);
+                }
+            }
+        });
+        List<T> list = new ArrayList<>();
+        for (List<T> rows : sheets) {
+            list.addAll(rows);
+        }
         return list;
     }
 
+    /**
+     * 并行解析所有的工作表, 每个工作表由一个工作线程打开并解析, 解析完成即回调工作表处理器, 所有工作表解析完成后返回.
+     * .xls 文件的所有工作表位于同一个记录流中, 不使用线程池, 在当前线程只读一遍记录流, 按工作表分别绑定
+     *
+     * @param targetClass  目标类型
+     * @param executor     执行解析的线程池, 为 null 时使用 {@link ForkJoinPool#commonPool()}
+     * @param sheetHandler 工作表处理器, 可能被多个线程同时回调
+     * @param <T>
+     */
+    public <T> void parseAllSheet(Class<T> targetClass, Executor executor, final SheetHandler<T> sheetHandler) {
+        init(targetClass);
+        if (getSheetCatalog().isHSSF()) {
+            parseAllHSSFSheet(null, sheetHandler);
+            return;
+        }
+        if (headerRow > 0 && getSheetCatalog().size() > 0) {
+            bindHeader(1);
+        }
+        if (!getSheetCatalog().isCSV()) {
+            // 样式表及共享字符串表须在工作线程开始之前加载
+            getStyleFormats();
+            getSharedStrings();
+        }
+        if (executor == null) {
+            executor = ForkJoinPool.commonPool();
+        }
+        List<CompletableFuture<Void>> futures = new ArrayList<>(getSheetCatalog().size());
+        for (int i = 1; i <= getSheetCatalog().size(); i++) {
+            final int sheetIndex = i;
+            futures.add(CompletableFuture.runAsync(new Runnable() {
+                @Override
+                public void run() {
+                    final List<T> rows = new ArrayList<>();
+                    processSheet(sheetIndex, openPart(sheetIndex), new RowHandler<T>() {
+                        @Override
+                        public void handle(T item, int rowNum) {
+                            rows.add(item);
+                        }
+                    });
+                    sheetHandler.handle(sheetIndex, rows);
+                }
+            }, executor));
+        }
+        try {
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[futures.size()])).join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new ExcelCastException(cause);
+        }
+    }
+
+    /**
+     * 迭代工作表, 逐行返回绑定的对象, 每次迭代只向前解析所需的行, 使用完毕须关闭迭代器
+     *
+     * @param index       工作表索引, 从1开始
+     * @param targetClass 目标类型
+     * @param <T>
+     * @return 返回行迭代器
+     */
+    public <T> RowIterator<T> iterateSheetAt(int index, Class<T> targetClass) {
+        init(targetClass);
+        InputStream stream = openSheet(index);
+        final RowIterator<T> iterator = new RowIterator<>();
+        final RowBinder<T> rowBinder = newRowBinder(new RowHandler<T>() {
+            @Override
+            public void handle(T item, int rowNum) {
+                iterator.push(item);
+            }
+        });
+        try {
+            iterator.setSheetReader(newSheetReader(index, stream, rowBinder));
+        } catch (Throwable e) {
+            try {
+                stream.close();
+            } catch (IOException ex) {}
+            // 读取限制等运行时异常原样抛出
+            if (e instanceof RuntimeException) {
+                throw (RuntimeException) e;
+            }
+            throw new ExcelCastException(e);
+        }
+        return iterator;
+    }
+
+    /**
+     * 以流的形式返回工作表的行数据, 使用完毕须关闭流
+     *
+     * @param index       工作表索引, 从1开始
+     * @param targetClass 目标类型
+     * @param <T>
+     * @return 返回行数据流
+     */
+    public <T> Stream<T> streamSheetAt(int index, Class<T> targetClass) {
+        final RowIterator<T> iterator = iterateSheetAt(index, targetClass);
+        Spliterator<T> spliterator = Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED | Spliterator.NONNULL);
+        return StreamSupport.stream(spliterator, false).onClose(new Runnable() {
+            @Override
+            public void run() {
+                iterator.close();
+            }
+        });
+    }
+
+    /**
+     * 以响应式流发布工作表的行数据, 按订阅者的请求数量逐行解析, 没有请求时不向前解析, 由请求的线程解析和回调订阅者.
+     * 只允许一个订阅者, 订阅结束(完成、出错或取消)时关闭工作表输入流及当前 Excel 对象
+     *
+     * @param index       工作表索引, 从1开始
+     * @param targetClass 目标类型
+     * @param <T>
+     * @return 返回工作表发布者
+     */
+    public <T> Publisher<T> publishSheetAt(int index, Class<T> targetClass) {
+        return publishSheetAt(index, targetClass, null);
+    }
+
+    /**
+     * 以响应式流发布工作表的行数据, 按订阅者的请求数量逐行解析, 没有请求时不向前解析.
+     * 只允许一个订阅者, 订阅结束(完成、出错或取消)时关闭工作表输入流及当前 Excel 对象
+     *
+     * @param index       工作表索引, 从1开始
+     * @param targetClass 目标类型
+     * @param executor    解析和回调订阅者的线程池, 为 null 时由请求的线程解析和回调
+     * @param <T>
+     * @return 返回工作表发布者
+     */
+    public <T> Publisher<T> publishSheetAt(int index, Class<T> targetClass, Executor executor) {
+        return new SheetPublisher<>(this, index, targetClass, executor);
+    }
+
+    /**
+     * 获取所有工作表的名称, 按工作簿中的顺序
+     *
+     * @return 返回工作表的名称列表
+     */
+    public List<String> getSheetNames() {
+        return getSheetCatalog().getNames();
+    }
+
+    /**
+     * 获取工作表的数量
+     *
+     * @return 返回工作表的数量
+     */
+    public int getSheetCount() {
+        return getSheetCatalog().size();
+    }
+
     /**
      * 设置解析的起始行, 从1开始
      *
@@ -119,64 +627,551 @@ public class ReadableExcel {
         return this;
     }
 
+    /**
+     * 设置标题行, 从1开始, 设置后按标题行的名称匹配 {@link org.fanlychie.jexcel.annotation.Cell#name()} 绑定列,
+     * 不再依赖 {@link org.fanlychie.jexcel.annotation.Cell#index()}, 列的顺序可以任意调整. 标题行之后的行为数据行,
+     * 找不到任一字段的标题时抛出 {@link ReadExcelException}. 并行解析所有的工作表时, 按第一个工作表的标题行绑定.
+     * 小于1时按 {@link org.fanlychie.jexcel.annotation.Cell#index()} 绑定
+     *
+     * @param headerRow 标题行, 从1开始
+     * @return 返回当前对象
+     */
+    public ReadableExcel setHeaderRow(int headerRow) {
+        this.headerRow = headerRow;
+        return this;
+    }
+
+    /**
+     * 设置解析的结束行, 从1开始, 超过结束行即停止解析并关闭工作表输入流, 小于1时解析到最后一行
+     *
+     * @param endRow 结束行, 从1开始
+     * @return 返回当前对象
+     */
+    public ReadableExcel setEndRow(int endRow) {
+        this.endRow = endRow;
+        return this;
+    }
+
+    /**
+     * 设置是否使用磁盘共享字符串表, 开启后共享字符串写出到临时文件并通过内存映射按需读取,
+     * 适用于文本内容非常多的大文件, 须在解析之前设置, 使用完毕须调用 {@link #close()} 删除临时文件
+     *
+     * @param mappedSharedStrings 是否使用磁盘共享字符串表
+     * @return 返回当前对象
+     */
+    public ReadableExcel setMappedSharedStrings(boolean mappedSharedStrings) {
+        this.mappedSharedStrings = mappedSharedStrings;
+        return this;
+    }
+
+    /**
+     * 设置是否直接读取数值单元格的原始值, 开启后数值和日期类型字段对应的列不再经过 DataFormatter 格式化再解析,
+     * 数值字段直接解析单元格的原始数值, 日期格式的单元格按 Excel 日期序列值转换为日期
+     *
+     * @param rawNumericValues 是否直接读取数值单元格的原始值
+     * @return 返回当前对象
+     */
+    public ReadableExcel setRawNumericValues(boolean rawNumericValues) {
+        this.rawNumericValues = rawNumericValues;
+        return this;
+    }
+
+    /**
+     * 设置工作表解析引擎, 缺省为 {@link ReadEngine#SAX}, 迭代和流式读取以及 .xls、CSV 文件不受此设置影响
+     *
+     * @param readEngine 工作表解析引擎
+     * @return 返回当前对象
+     */
+    public ReadableExcel setReadEngine(ReadEngine readEngine) {
+        this.readEngine = readEngine;
+        return this;
+    }
+
+    /**
+     * 设置读取限制, 防止超大或解压炸弹文件耗尽内存和 CPU. 部件解压后的字节数、共享字符串表、行数、列数及单元格文本的长度
+     * 在解析过程中逐步检查, 超过任一限制时立即停止解析并抛出 {@link org.fanlychie.jexcel.exception.ReadLimitException}.
+     * 须在解析或获取工作表名称之前设置, 工作表目录及样式表在首次使用时读取, 同样受读取限制.
+     * 从输入流打开的 .xlsx 文件在打开时已由 POI 解压, 受 ZipSecureFile 的全局限制
+     *
+     * @param readLimits 读取限制, 为 null 时不限制
+     * @return 返回当前对象
+     */
+    public ReadableExcel setReadLimits(ReadLimits readLimits) {
+        this.readLimits = readLimits;
+        return this;
+    }
+
+    /**
+     * 关闭 Excel 文件, 释放共享字符串表占用的资源
+     */
+    @Override
+    public void close() {
+        if (sharedStrings instanceof Closeable) {
+            try {
+                ((Closeable) sharedStrings).close();
+            } catch (IOException e) {}
+        }
+        sharedStrings = null;
+        if (opcPackage != null) {
+            opcPackage.revert();
+        } else if (fileSystem != null) {
+            try {
+                fileSystem.close();
+            } catch (IOException e) {}
+        }
+    }
+
+    // 打开 Excel 文件, 按文件头识别格式, .xls 文件只读打开, 工作表目录在首次使用时读取
+    private void openFile(File excelFile) throws Exception {
+        boolean ole2;
+        InputStream stream = new BufferedInputStream(new FileInputStream(excelFile));
+        try {
+            ole2 = NPOIFSFileSystem.hasPOIFSHeader(stream);
+        } finally {
+            stream.close();
+        }
+        if (ole2) {
+            fileSystem = new NPOIFSFileSystem(excelFile, true);
+        } else {
+            opcPackage = OPCPackage.open(excelFile);
+        }
+    }
+
+    // 打开 Excel 输入流, 按文件头识别格式, 不关闭输入流, 工作表目录在首次使用时读取
+    private void openStream(InputStream excelInputStream) throws Exception {
+        InputStream stream = excelInputStream.markSupported() ? excelInputStream : new BufferedInputStream(excelInputStream);
+        if (NPOIFSFileSystem.hasPOIFSHeader(stream)) {
+            fileSystem = new NPOIFSFileSystem(NPOIFSFileSystem.createNonClosingInputStream(stream));
+        } else {
+            opcPackage = OPCPackage.open(stream);
+        }
+    }
+
+    // 获取工作表目录, 首次使用时按读取限制读取 workbook.xml 或 .xls 的工作簿全局子流
+    private SheetCatalog getSheetCatalog() {
+        if (sheetCatalog == null) {
+            try {
+                if (fileSystem != null) {
+                    sheetCatalog = new SheetCatalog(fileSystem, readLimits);
+                } else {
+                    sheetCatalog = new SheetCatalog(new XSSFReader(opcPackage), readLimits);
+                }
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new ExcelCastException(e);
+            }
+        }
+        return sheetCatalog;
+    }
+
+    // 获取样式格式表, 首次使用时按读取限制读取 styles.xml
+    private StyleFormats getStyleFormats() {
+        if (styleFormats == null) {
+            try {
+                styleFormats = StyleFormats.read(opcPackage, readLimits);
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new ExcelCastException(e);
+            }
+        }
+        return styleFormats;
+    }
+
+    // 获取共享字符串表, 首次使用时加载
+    private SharedStrings getSharedStrings() {
+        if (sharedStrings == null) {
+            try {
+                if (mappedSharedStrings) {
+                    sharedStrings = new MappedSharedStrings(opcPackage, readLimits);
+                } else {
+                    sharedStrings = new HeapSharedStrings(opcPackage, readLimits);
+                }
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new ExcelCastException(e);
+            }
+        }
+        return sharedStrings;
+    }
+
     // 初始化工作
     private void init(Class<?> targetClass) {
-        this.cellFieldMap = new HashMap<>();
-        this.beanDescriptor = new BeanDescriptor(targetClass);
-        List<CellField> cellFields = AnnotationHandler.parseClass(targetClass);
-        for (CellField cellField : cellFields) {
-            cellFieldMap.put(cellField.getIndex(), cellField);
+        this.targetClass = targetClass;
+        init(AnnotationHandler.parseReadableClass(targetClass));
+    }
+
+    // 按单元格字段初始化, 字段可以来自 @Cell 注解或行定义
+    private void init(List<CellField> cellFieldList) {
+        this.cellFieldList = cellFieldList;
+        this.firstRow = startRow;
+        this.lastRow = endRow;
+        int columnCount = 0;
+        for (CellField cellField : cellFieldList) {
+            columnCount = Math.max(columnCount, cellField.getIndex() + 1);
         }
+        bindColumns(cellFieldList, new int[0], columnCount);
     }
 
-    // 解析工作表
-    private void parseSheet(InputStream sheetInputStream, final List list) throws Throwable {
-        XMLReader sheetParser = SAXParserFactory.newInstance().newSAXParser().getXMLReader();
-        sheetParser.setContentHandler(new XSSFSheetHandler(stylesTable, sharedStringsTable) {
-            Object item = beanDescriptor.newInstance();
-            @Override
-            public void postCellHandle(int index, String name, String value, int row, boolean newRow) {
-                if (row >= startRow) {
-                    if (newRow) {
-                        if (!list.isEmpty() || startRow != row) {
-                            list.add(item);
-                        }
-                        item = beanDescriptor.newInstance();
+    // 按标题行的名称重新绑定列, 标题行之后的行才是数据行
+    private void bindHeader(int sheetIndex) {
+        bindTitles(sheetIndex, readTitles(sheetIndex));
+    }
+
+    // 读取工作表标题行的名称及所在的列
+    private Map<String, Integer> readTitles(int sheetIndex) {
+        final Map<String, Integer> titles = new HashMap<>();
+        InputStream stream = openPart(sheetIndex);
+        try {
+            if (getSheetCatalog().isHSSF()) {
+                HSSFSheetReader headerReader = new HSSFSheetReader(stream, sheetIndex) {
+                    @Override
+                    public void postCellHandle(int column, int row, String value, boolean newRow) {
+                        putTitle(titles, column, value);
+                    }
+                };
+                headerReader.setRowRange(headerRow, headerRow);
+                headerReader.setReadLimits(readLimits);
+                headerReader.parse();
+            } else if (getSheetCatalog().isCSV()) {
+                CSVSheetReader headerReader = new CSVSheetReader(stream, csvCharset, csvDelimiter) {
+                    @Override
+                    public void postCellHandle(int column, int row, String value, boolean newRow) {
+                        putTitle(titles, column, value);
                     }
-                    CellField cellField = cellFieldMap.get(index);
-                    try {
-                        Object cellValue = ValueConverter.convertObjectValue(value, cellField.getType());
-                        beanDescriptor.setValueByName(cellField.getField(), cellValue);
-                    } catch (Exception e) {
-                        throw new ReadExcelException("Parse " + name + " error : " + e);
+                };
+                headerReader.setRowRange(headerRow, headerRow);
+                headerReader.setReadLimits(readLimits);
+                headerReader.parse();
+            } else {
+                XSSFSheetScanner headerScanner = new XSSFSheetScanner(getStyleFormats(), getSharedStrings()) {
+                    @Override
+                    public void postCellHandle(int column, int row, String value, boolean newRow) {
+                        putTitle(titles, column, value);
                     }
+                };
+                headerScanner.setRowRange(headerRow, headerRow);
+                headerScanner.setReadLimits(readLimits);
+                headerScanner.parse(stream);
+            }
+        } catch (IOException e) {
+            throw new ExcelCastException(e);
+        } finally {
+            try {
+                stream.close();
+            } catch (IOException e) {}
+        }
+        return titles;
+    }
+
+    // 只读一遍 .xls 的记录流, 读取所有工作表标题行的名称及所在的列
+    private Map<Integer, Map<String, Integer>> readHSSFTitles() {
+        final Map<Integer, Map<String, Integer>> sheetTitles = new HashMap<>();
+        InputStream stream = openPart(1);
+        try {
+            HSSFSheetReader headerReader = new HSSFSheetReader(stream, 0) {
+                private Map<String, Integer> titles;
+
+                @Override
+                public void startSheet(int sheetIndex) {
+                    titles = new HashMap<>();
+                    sheetTitles.put(sheetIndex, titles);
+                }
+
+                @Override
+                public void postCellHandle(int column, int row, String value, boolean newRow) {
+                    putTitle(titles, column, value);
+                }
+            };
+            headerReader.setRowRange(headerRow, headerRow);
+            headerReader.setReadLimits(readLimits);
+            headerReader.parse();
+        } finally {
+            try {
+                stream.close();
+            } catch (IOException e) {}
+        }
+        return sheetTitles;
+    }
+
+    // 按标题的名称绑定列
+    private void bindTitles(int sheetIndex, Map<String, Integer> titles) {
+        int[] columns = new int[cellFieldList.size()];
+        int columnCount = 0;
+        List<String> missing = new ArrayList<>();
+        for (int i = 0; i < columns.length; i++) {
+            String name = cellFieldList.get(i).getName();
+            // 行定义中没有名称的列按索引绑定
+            Integer column = name != null ? titles.get(name.trim()) : Integer.valueOf(cellFieldList.get(i).getIndex());
+            if (column == null) {
+                missing.add(cellFieldList.get(i).getName());
+                continue;
+            }
+            columns[i] = column;
+            columnCount = Math.max(columnCount, column + 1);
+        }
+        if (!missing.isEmpty()) {
+            throw new ReadExcelException("can not found header : " + missing + " in sheet index : " + sheetIndex);
+        }
+        bindColumns(cellFieldList, columns, columnCount);
+        if (firstRow <= headerRow) {
+            firstRow = headerRow + 1;
+        }
+    }
+
+    // 记录标题所在的列, 重复的标题取第一列
+    private static void putTitle(Map<String, Integer> titles, int column, String value) {
+        if (value != null && !titles.containsKey(value.trim())) {
+            titles.put(value.trim(), column);
+        }
+    }
+
+    // 构建按列索引存放的单元格字段, columns 为空时使用 @Cell 的索引
+    private void bindColumns(List<CellField> cellFieldList, int[] columns, int columnCount) {
+        this.cellFields = new CellField[columnCount];
+        this.cellColumns = new BitSet(columnCount);
+        this.rawColumns = rawNumericValues ? new BitSet(columnCount) : null;
+        for (int i = 0; i < cellFieldList.size(); i++) {
+            CellField cellField = cellFieldList.get(i);
+            int column = columns.length > 0 ? columns[i] : cellField.getIndex();
+            cellFields[column] = cellField;
+            cellColumns.set(column);
+            if (rawColumns != null && isNumericOrDate(cellField.getType())) {
+                rawColumns.set(column);
+            }
+        }
+    }
+
+    // 是否是数值或日期类型
+    private boolean isNumericOrDate(Class<?> type) {
+        return (type.isPrimitive() && type != Boolean.TYPE && type != Character.TYPE)
+                || Number.class.isAssignableFrom(type) || ValueConverter.isDateType(type);
+    }
+
+    // 创建行绑定器
+    private <T> RowBinder<T> newRowBinder(RowHandler<T> rowHandler) {
+        return new RowBinder<>(targetClass, cellFields, firstRow, rowHandler);
+    }
+
+    // 打开工作表, 按标题行绑定时先读取该工作表的标题行
+    private InputStream openSheet(int index) {
+        if (headerRow > 0) {
+            bindHeader(index);
+        }
+        return openPart(index);
+    }
+
+    // 打开工作表部件, 按读取限制计数解压后的字节数
+    private InputStream openPart(int index) {
+        return LimitedInputStream.wrap(getSheetCatalog().open(index), readLimits);
+    }
+
+    // 解析工作表
+    private void parseSheet(int index, InputStream sheetInputStream, final CellBinder cellBinder) throws Throwable {
+        if (getSheetCatalog().isHSSF() || getSheetCatalog().isCSV()) {
+            SheetRowReader sheetReader = newSheetReader(index, sheetInputStream, cellBinder);
+            while (sheetReader.nextRow()) {
+                // 单元格已逐行绑定
+            }
+            return;
+        }
+        if (readEngine == ReadEngine.SCANNER) {
+            XSSFSheetScanner sheetScanner = new XSSFSheetScanner(getStyleFormats(), getSharedStrings()) {
+                @Override
+                public void postCellHandle(int column, int row, String value, boolean newRow) {
+                    cellBinder.bindCell(column, row, value);
                 }
+
+                @Override
+                public void postRawCellHandle(int column, int row, String rawValue, boolean dateFormatted, boolean newRow) {
+                    cellBinder.bindRawCell(column, row, rawValue, dateFormatted);
+                }
+
+                @Override
+                public void endDocument() {
+                    cellBinder.flush();
+                }
+            };
+            sheetScanner.setColumns(cellColumns);
+            sheetScanner.setRawColumns(rawColumns);
+            sheetScanner.setRowRange(firstRow, lastRow);
+            sheetScanner.setReadLimits(readLimits);
+            sheetScanner.parse(sheetInputStream);
+            return;
+        }
+        XMLReader sheetParser = ParserPool.saxReader();
+        XSSFSheetHandler sheetHandler = new XSSFSheetHandler(getStyleFormats(), getSharedStrings()) {
+            @Override
+            public void postCellHandle(int column, int row, String value, boolean newRow) {
+                cellBinder.bindCell(column, row, value);
+            }
+
+            @Override
+            public void postRawCellHandle(int column, int row, String rawValue, boolean dateFormatted, boolean newRow) {
+                cellBinder.bindRawCell(column, row, rawValue, dateFormatted);
             }
 
             @Override
             public void endDocument() throws SAXException {
-                list.add(item);
+                cellBinder.flush();
             }
-        });
-        sheetParser.parse(new InputSource(sheetInputStream));
+        };
+        sheetHandler.setColumns(cellColumns);
+        sheetHandler.setRawColumns(rawColumns);
+        sheetHandler.setRowRange(firstRow, lastRow);
+        sheetHandler.setReadLimits(readLimits);
+        sheetParser.setContentHandler(sheetHandler);
+        try {
+            sheetParser.parse(new InputSource(sheetInputStream));
+        } catch (XSSFSheetHandler.StopParsingException e) {
+            // 已超过结束行
+        } finally {
+            ParserPool.release(sheetParser);
+        }
     }
 
-    // 处理工作表
-    private <T> List<T> processSheet(Class<T> targetClass) {
-        InputStream stream = null;
+    // 创建拉取式工作表读取器, 单元格交给绑定器
+    private SheetRowReader newSheetReader(int index, InputStream sheetInputStream, final CellBinder cellBinder) throws Exception {
+        if (getSheetCatalog().isCSV()) {
+            CSVSheetReader sheetReader = new CSVSheetReader(sheetInputStream, csvCharset, csvDelimiter) {
+                @Override
+                public void postCellHandle(int column, int row, String value, boolean newRow) {
+                    cellBinder.bindCell(column, row, value);
+                }
+
+                @Override
+                public void endDocument() {
+                    cellBinder.flush();
+                }
+            };
+            sheetReader.setColumns(cellColumns);
+            sheetReader.setRowRange(firstRow, lastRow);
+            sheetReader.setReadLimits(readLimits);
+            return sheetReader;
+        }
+        if (getSheetCatalog().isHSSF()) {
+            HSSFSheetReader sheetReader = new HSSFSheetReader(sheetInputStream, index) {
+                @Override
+                public void postCellHandle(int column, int row, String value, boolean newRow) {
+                    cellBinder.bindCell(column, row, value);
+                }
+
+                @Override
+                public void postRawCellHandle(int column, int row, String rawValue, boolean dateFormatted, boolean newRow) {
+                    cellBinder.bindRawCell(column, row, rawValue, dateFormatted);
+                }
+
+                @Override
+                public void endDocument() {
+                    cellBinder.flush();
+                }
+            };
+            sheetReader.setColumns(cellColumns);
+            sheetReader.setRawColumns(rawColumns);
+            sheetReader.setRowRange(firstRow, lastRow);
+            sheetReader.setReadLimits(readLimits);
+            return sheetReader;
+        }
+        XSSFSheetReader sheetReader = new XSSFSheetReader(getStyleFormats(), getSharedStrings(), sheetInputStream) {
+            @Override
+            public void postCellHandle(int column, int row, String value, boolean newRow) {
+                cellBinder.bindCell(column, row, value);
+            }
+
+            @Override
+            public void postRawCellHandle(int column, int row, String rawValue, boolean dateFormatted, boolean newRow) {
+                cellBinder.bindRawCell(column, row, rawValue, dateFormatted);
+            }
+
+            @Override
+            public void endDocument() {
+                cellBinder.flush();
+            }
+        };
+        sheetReader.setColumns(cellColumns);
+        sheetReader.setRawColumns(rawColumns);
+        sheetReader.setRowRange(firstRow, lastRow);
+        sheetReader.setReadLimits(readLimits);
+        return sheetReader;
+    }
+
+    // 只读一遍 .xls 的记录流, 每个工作表使用各自的绑定器, 行逐行回调行处理器, 或在工作表结束时整体回调工作表处理器.
+    // 按标题行绑定时先另读一遍记录流取得所有工作表的标题, 每个工作表开始时按各自的标题重新绑定列
+    private <T> void parseAllHSSFSheet(final RowHandler<T> rowHandler, final SheetHandler<T> sheetHandler) {
+        final Map<Integer, Map<String, Integer>> sheetTitles = headerRow > 0 ? readHSSFTitles() : null;
+        InputStream stream = openPart(1);
         try {
-            stream = sheetIterator.next();
-            List<T> list = new ArrayList<>();
-            parseSheet(stream, list);
-            return list;
+            HSSFSheetReader sheetReader = new HSSFSheetReader(stream, 0) {
+                private List<T> rows;
+
+                private RowBinder<T> rowBinder;
+
+                @Override
+                public void startSheet(int sheetIndex) {
+                    if (sheetTitles != null) {
+                        Map<String, Integer> titles = sheetTitles.get(sheetIndex);
+                        bindTitles(sheetIndex, titles != null ? titles : Collections.<String, Integer>emptyMap());
+                        setColumns(cellColumns);
+                        setRawColumns(rawColumns);
+                        setRowRange(firstRow, lastRow);
+                    }
+                    if (sheetHandler == null) {
+                        rowBinder = newRowBinder(rowHandler);
+                        return;
+                    }
+                    final List<T> sheetRows = new ArrayList<>();
+                    rows = sheetRows;
+                    rowBinder = newRowBinder(new RowHandler<T>() {
+                        @Override
+                        public void handle(T item, int rowNum) {
+                            sheetRows.add(item);
+                        }
+                    });
+                }
+
+                @Override
+                public void postCellHandle(int column, int row, String value, boolean newRow) {
+                    rowBinder.bindCell(column, row, value);
+                }
+
+                @Override
+                public void postRawCellHandle(int column, int row, String rawValue, boolean dateFormatted, boolean newRow) {
+                    rowBinder.bindRawCell(column, row, rawValue, dateFormatted);
+                }
+
+                @Override
+                public void endSheet(int sheetIndex) {
+                    rowBinder.flush();
+                    if (sheetHandler != null) {
+                        sheetHandler.handle(sheetIndex, rows);
+                    }
+                }
+            };
+            sheetReader.setColumns(cellColumns);
+            sheetReader.setRawColumns(rawColumns);
+            sheetReader.setRowRange(firstRow, lastRow);
+            sheetReader.setReadLimits(readLimits);
+            sheetReader.parse();
+        } finally {
+            try {
+                stream.close();
+            } catch (IOException e) {}
+        }
+    }
+
+    private <T> void processSheet(int index, InputStream stream, RowHandler<T> rowHandler) {
+        try {
+            parseSheet(index, stream, newRowBinder(rowHandler));
+        } catch (RuntimeException e) {
+            throw e;
         } catch (Throwable e) {
             throw new ExcelCastException(e);
         } finally {
-            if (stream != null) {
-                try {
-                    stream.close();
-                } catch (IOException e) {}
-            }
+            try {
+                stream.close();
+            } catch (IOException e) {}
         }
     }
 
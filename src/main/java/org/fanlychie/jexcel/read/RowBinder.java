@@ -0,0 +1,121 @@
+package org.fanlychie.jexcel.read;
+
+import org.fanlychie.jexcel.annotation.CellField;
+import org.fanlychie.jexcel.exception.ReadExcelException;
+import org.fanlychie.jreflect.BeanDescriptor;
+
+
+/**
+ * 行绑定器, 将单元格的值绑定到目标对象, 每完成一行即交给行处理器, 交出后不再持有其引用.
+ * 每个绑定器使用独立的 BeanDescriptor, 不同的绑定器可在不同的线程中同时绑定
+ */
+final class RowBinder<T> implements CellBinder {
+
+    private final RowHandler<T> rowHandler;
+
+    private final BeanDescriptor beanDescriptor;
+
+    private final CellField[] cellFields;
+
+    private final int startRow;
+
+    /**
+     * 按列索引存放的日期格式记忆, 每个绑定器独立记忆
+     */
+    private final DateFormatMemo[] dateFormatMemos;
+
+    private Object item;
+
+    private int itemRow;
+
+    RowBinder(Class<?> targetClass, CellField[] cellFields, int startRow, RowHandler<T> rowHandler) {
+        this.rowHandler = rowHandler;
+        this.beanDescriptor = new BeanDescriptor(targetClass);
+        this.cellFields = cellFields;
+        this.startRow = startRow;
+        this.dateFormatMemos = DateFormatMemo.newArray(cellFields.length);
+    }
+
+    /**
+     * 绑定单元格
+     *
+     * @param column 单元格的列索引, 从0开始
+     * @param row    单元格的行号, 从1开始
+     * @param value  单元格的字符串值
+     */
+    @Override
+    public void bindCell(int column, int row, String value) {
+        bindCell(column, row, value, false);
+    }
+
+    /**
+     * 绑定原始值单元格, 数值类型的字段直接解析原始数值, 日期格式的单元格按 Excel 日期序列值转换为日期
+     *
+     * @param column        单元格的列索引, 从0开始
+     * @param row           单元格的行号, 从1开始
+     * @param rawValue      单元格的原始数值
+     * @param dateFormatted 单元格样式是否为日期格式
+     */
+    @Override
+    public void bindRawCell(int column, int row, String rawValue, boolean dateFormatted) {
+        bindCell(column, row, rawValue, dateFormatted);
+    }
+
+    private void bindCell(int column, int row, String value, boolean dateValue) {
+        CellField cellField = column < cellFields.length ? cellFields[column] : null;
+        if (row >= startRow && cellField != null) {
+            if (item == null || row != itemRow) {
+                flush();
+                item = beanDescriptor.newInstance();
+                itemRow = row;
+            }
+            try {
+                Class<?> type = cellField.getType();
+                if (dateValue && ValueConverter.isDateType(type)) {
+                    cellField.setValue(item, ValueConverter.convertExcelDateValue(value, type));
+                } else if (value != null && ValueConverter.isDateType(type)) {
+                    cellField.setValue(item, ValueConverter.convertDateValue(value, type, dateFormatMemos[column]));
+                } else if (value != null && type.isPrimitive() && type != Boolean.TYPE) {
+                    bindPrimitive(cellField, type, value);
+                } else {
+                    cellField.setValue(item, ValueConverter.convertObjectValue(value, type, dateFormatMemos[column]));
+                }
+            } catch (Exception e) {
+                throw new ReadExcelException("Parse " + XSSFCellDecoder.cellName(column, row) + " error : " + e);
+            }
+        }
+    }
+
+    // 基本类型的字段直接解析赋值, 不装箱
+    private void bindPrimitive(CellField cellField, Class<?> type, String value) {
+        if (type == Integer.TYPE) {
+            cellField.setInt(item, ValueConverter.convertIntValue(value));
+        } else if (type == Long.TYPE) {
+            cellField.setLong(item, ValueConverter.convertLongValue(value));
+        } else if (type == Double.TYPE) {
+            cellField.setDouble(item, ValueConverter.convertDoubleValue(value));
+        } else if (type == Float.TYPE) {
+            cellField.setFloat(item, ValueConverter.convertFloatValue(value));
+        } else if (type == Short.TYPE) {
+            cellField.setShort(item, ValueConverter.convertShortValue(value));
+        } else if (type == Byte.TYPE) {
+            cellField.setByte(item, ValueConverter.convertByteValue(value));
+        } else {
+            cellField.setValue(item, ValueConverter.convertObjectValue(value, type));
+        }
+    }
+
+    /**
+     * 交出当前行对象
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public void flush() {
+        if (item != null) {
+            Object current = item;
+            item = null;
+            rowHandler.handle((T) current, itemRow);
+        }
+    }
+
+}
@@ -0,0 +1,16 @@
+package org.fanlychie.jexcel.read;
+
+/**
+ * 行处理器, 每解析完成一行数据即回调一次, 用于流式读取
+ */
+public interface RowHandler<T> {
+
+    /**
+     * 行处理
+     *
+     * @param item   当前行绑定的对象
+     * @param rowNum 当前行的行号, 数值从1开始
+     */
+    void handle(T item, int rowNum);
+
+}
@@ -0,0 +1,98 @@
+package org.fanlychie.jexcel.read;
+
+import org.fanlychie.jexcel.exception.ExcelCastException;
+
+import java.io.Closeable;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * 行迭代器, 逐行返回工作表绑定的对象, 使用完毕须调用 {@link #close()} 释放资源.
+ * 每次调用 {@link #hasNext()} 只向前拉取解析所需的行, 不使用额外的线程和缓冲
+ */
+public class RowIterator<T> implements Iterator<T>, Closeable {
+
+    /**
+     * 工作表读取器
+     */
+    private SheetRowReader sheetReader;
+
+    /**
+     * 下一个元素
+     */
+    private T next;
+
+    /**
+     * 是否已关闭
+     */
+    private boolean closed;
+
+    /**
+     * 外部不可访问
+     */
+    RowIterator() {
+
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (next != null) {
+            return true;
+        }
+        if (closed) {
+            return false;
+        }
+        try {
+            while (next == null) {
+                if (!sheetReader.nextRow()) {
+                    close();
+                    break;
+                }
+            }
+        } catch (RuntimeException e) {
+            close();
+            throw e;
+        } catch (Throwable e) {
+            close();
+            throw new ExcelCastException(e);
+        }
+        return next != null;
+    }
+
+    @Override
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        T item = next;
+        next = null;
+        return item;
+    }
+
+    @Override
+    public void remove() {
+        throw new UnsupportedOperationException("remove");
+    }
+
+    /**
+     * 关闭迭代器, 释放工作表输入流
+     */
+    @Override
+    public void close() {
+        if (!closed) {
+            closed = true;
+            sheetReader.close();
+        }
+    }
+
+    // 设置工作表读取器
+    void setSheetReader(SheetRowReader sheetReader) {
+        this.sheetReader = sheetReader;
+    }
+
+    // 接收解析完成的一行
+    void push(T item) {
+        this.next = item;
+    }
+
+}
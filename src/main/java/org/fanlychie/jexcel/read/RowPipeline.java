@@ -0,0 +1,359 @@
+package org.fanlychie.jexcel.read;
+
+import org.fanlychie.jexcel.annotation.CellField;
+import org.fanlychie.jexcel.exception.ExcelCastException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 行流水线, 解析线程将单元格的原始值按行打包成批次, 经有界队列交给多个工作线程并行转换和绑定,
+ * 绑定完成的对象按行的顺序回调行处理器. 批次对象循环复用, 在途的批次数量有上限, 内存占用不随行数增长
+ */
+final class RowPipeline<T> implements CellBinder {
+
+    /**
+     * 每个批次的行数
+     */
+    private static final int BATCH_ROWS = 256;
+
+    /**
+     * 结束标记
+     */
+    private static final RawBatch END = new RawBatch();
+
+    private final Class<?> targetClass;
+
+    private final CellField[] cellFields;
+
+    private final int startRow;
+
+    private final RowHandler<T> rowHandler;
+
+    /**
+     * 空闲的批次
+     */
+    private final BlockingQueue<RawBatch> freeBatches;
+
+    /**
+     * 待转换的批次
+     */
+    private final BlockingQueue<RawBatch> workQueue;
+
+    /**
+     * 已转换待交付的批次, 按序号取模存放
+     */
+    private final RawBatch[] pending;
+
+    private final ExecutorService workerPool;
+
+    private final int workers;
+
+    /**
+     * 当前正在填充的批次
+     */
+    private RawBatch current;
+
+    /**
+     * 下一个提交的批次序号
+     */
+    private long submitSeq;
+
+    /**
+     * 下一个交付的批次序号
+     */
+    private long deliverSeq;
+
+    private volatile Throwable error;
+
+    RowPipeline(Class<?> targetClass, CellField[] cellFields, int startRow, int workers, RowHandler<T> rowHandler) {
+        this.targetClass = targetClass;
+        this.cellFields = cellFields;
+        this.startRow = startRow;
+        this.rowHandler = rowHandler;
+        this.workers = workers;
+        int capacity = workers * 2;
+        this.freeBatches = new ArrayBlockingQueue<>(capacity);
+        this.workQueue = new ArrayBlockingQueue<>(capacity + workers);
+        this.pending = new RawBatch[capacity];
+        for (int i = 0; i < capacity; i++) {
+            freeBatches.add(new RawBatch());
+        }
+        this.workerPool = Executors.newFixedThreadPool(workers, new ThreadFactory() {
+            private final AtomicInteger count = new AtomicInteger();
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, "jexcel-pipeline-" + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        for (int i = 0; i < workers; i++) {
+            workerPool.execute(new Worker());
+        }
+    }
+
+    /**
+     * 添加单元格的原始值, 由解析线程调用
+     *
+     * @param column 单元格的列索引, 从0开始
+     * @param row    单元格的行号, 从1开始
+     * @param value  单元格的字符串值
+     */
+    @Override
+    public void bindCell(int column, int row, String value) {
+        addCell(column, row, value, RawBatch.FORMATTED);
+    }
+
+    /**
+     * 添加原始值单元格, 由解析线程调用
+     *
+     * @param column        单元格的列索引, 从0开始
+     * @param row           单元格的行号, 从1开始
+     * @param rawValue      单元格的原始数值
+     * @param dateFormatted 单元格样式是否为日期格式
+     */
+    @Override
+    public void bindRawCell(int column, int row, String rawValue, boolean dateFormatted) {
+        addCell(column, row, rawValue, dateFormatted ? RawBatch.RAW_DATE : RawBatch.RAW);
+    }
+
+    private void addCell(int column, int row, String value, byte kind) {
+        if (row < startRow) {
+            return;
+        }
+        if (current == null) {
+            current = takeFreeBatch();
+        } else if (row != current.lastRow && current.rowCount >= BATCH_ROWS) {
+            submit();
+            current = takeFreeBatch();
+        }
+        current.add(column, row, value, kind);
+    }
+
+    /**
+     * 解析结束, 等待所有批次交付完毕
+     */
+    @Override
+    public void flush() {
+        if (current != null) {
+            submit();
+        }
+        synchronized (pending) {
+            while (deliverSeq < submitSeq) {
+                try {
+                    pending.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new ExcelCastException(e);
+                }
+            }
+        }
+        checkError();
+    }
+
+    /**
+     * 关闭工作线程
+     */
+    void shutdown() {
+        for (int i = 0; i < workers; i++) {
+            workQueue.offer(END);
+        }
+        workerPool.shutdownNow();
+    }
+
+    // 提交当前批次
+    private void submit() {
+        current.seq = submitSeq++;
+        try {
+            workQueue.put(current);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ExcelCastException(e);
+        }
+        current = null;
+    }
+
+    // 取一个空闲的批次, 在途批次已满时等待
+    private RawBatch takeFreeBatch() {
+        try {
+            while (true) {
+                checkError();
+                RawBatch batch = freeBatches.poll(100, TimeUnit.MILLISECONDS);
+                if (batch != null) {
+                    return batch;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ExcelCastException(e);
+        }
+    }
+
+    // 按序号交付已转换的批次
+    private void complete(RawBatch batch) {
+        synchronized (pending) {
+            pending[(int) (batch.seq % pending.length)] = batch;
+            RawBatch next;
+            while ((next = pending[(int) (deliverSeq % pending.length)]) != null && next.seq == deliverSeq) {
+                pending[(int) (deliverSeq % pending.length)] = null;
+                ++deliverSeq;
+                if (error == null) {
+                    try {
+                        deliver(next);
+                    } catch (Throwable e) {
+                        fail(e);
+                    }
+                }
+                next.clear();
+                freeBatches.offer(next);
+                pending.notifyAll();
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void deliver(RawBatch batch) {
+        for (int i = 0; i < batch.itemCount; i++) {
+            rowHandler.handle((T) batch.items.get(i), batch.itemRows[i]);
+        }
+    }
+
+    private void fail(Throwable e) {
+        if (error == null) {
+            error = e;
+        }
+    }
+
+    private void checkError() {
+        Throwable e = error;
+        if (e != null) {
+            throw e instanceof RuntimeException ? (RuntimeException) e : new ExcelCastException(e);
+        }
+    }
+
+    /**
+     * 工作线程, 转换批次中的单元格值并绑定对象
+     */
+    private class Worker implements Runnable, RowHandler<Object> {
+
+        private RawBatch batch;
+
+        @Override
+        public void run() {
+            RowBinder<Object> rowBinder = new RowBinder<>(targetClass, cellFields, startRow, this);
+            try {
+                while (true) {
+                    batch = workQueue.take();
+                    if (batch == END) {
+                        return;
+                    }
+                    if (error == null) {
+                        try {
+                            for (int i = 0; i < batch.cellCount; i++) {
+                                byte kind = batch.kinds[i];
+                                if (kind == RawBatch.FORMATTED) {
+                                    rowBinder.bindCell(batch.columns[i], batch.rows[i], batch.values[i]);
+                                } else {
+                                    rowBinder.bindRawCell(batch.columns[i], batch.rows[i], batch.values[i], kind == RawBatch.RAW_DATE);
+                                }
+                            }
+                            rowBinder.flush();
+                        } catch (Throwable e) {
+                            fail(e);
+                        }
+                    }
+                    complete(batch);
+                }
+            } catch (InterruptedException e) {
+                // 关闭时中断
+            }
+        }
+
+        @Override
+        public void handle(Object item, int rowNum) {
+            batch.addItem(item, rowNum);
+        }
+
+    }
+
+    /**
+     * 原始行批次, 保存若干行单元格的原始值及其绑定的结果
+     */
+    private static final class RawBatch {
+
+        static final byte FORMATTED = 0;
+
+        static final byte RAW = 1;
+
+        static final byte RAW_DATE = 2;
+
+        long seq;
+
+        int lastRow = -1;
+
+        int rowCount;
+
+        int cellCount;
+
+        int[] columns = new int[BATCH_ROWS];
+
+        int[] rows = new int[BATCH_ROWS];
+
+        String[] values = new String[BATCH_ROWS];
+
+        byte[] kinds = new byte[BATCH_ROWS];
+
+        int itemCount;
+
+        int[] itemRows = new int[BATCH_ROWS];
+
+        List<Object> items = new ArrayList<>(BATCH_ROWS);
+
+        void add(int column, int row, String value, byte kind) {
+            if (cellCount == columns.length) {
+                int length = cellCount << 1;
+                columns = Arrays.copyOf(columns, length);
+                rows = Arrays.copyOf(rows, length);
+                values = Arrays.copyOf(values, length);
+                kinds = Arrays.copyOf(kinds, length);
+            }
+            columns[cellCount] = column;
+            rows[cellCount] = row;
+            values[cellCount] = value;
+            kinds[cellCount] = kind;
+            ++cellCount;
+            if (row != lastRow) {
+                lastRow = row;
+                ++rowCount;
+            }
+        }
+
+        void addItem(Object item, int row) {
+            if (itemCount == itemRows.length) {
+                itemRows = Arrays.copyOf(itemRows, itemCount << 1);
+            }
+            items.add(item);
+            itemRows[itemCount++] = row;
+        }
+
+        void clear() {
+            Arrays.fill(values, 0, cellCount, null);
+            items.clear();
+            lastRow = -1;
+            rowCount = 0;
+            cellCount = 0;
+            itemCount = 0;
+        }
+
+    }
+
+}
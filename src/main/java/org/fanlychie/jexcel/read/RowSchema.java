@@ -0,0 +1,81 @@
+package org.fanlychie.jexcel.read;
+
+import org.fanlychie.jexcel.annotation.AnnotationHandler;
+import org.fanlychie.jexcel.annotation.CellField;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 行定义, 按列索引定义需要读取的列及其值的类型, 用于列在运行时才确定、没有对应 Java 类的读取.
+ * 设置了标题行时, 有名称的列按标题行的名称绑定, 没有名称的列按索引绑定, 行视图始终按列定义的索引取值
+ */
+public class RowSchema {
+
+    private final List<CellField> columns = new ArrayList<>();
+
+    private final BitSet indexes = new BitSet();
+
+    /**
+     * 添加列
+     *
+     * @param index 列索引, 从0开始
+     * @param type  值的类型, 支持 String、基本类型及其包装类型、BigDecimal、BigInteger、Date、LocalDate、LocalDateTime、Instant
+     * @return 返回当前对象
+     */
+    public RowSchema addColumn(int index, Class<?> type) {
+        return addColumn(index, null, type);
+    }
+
+    /**
+     * 添加列
+     *
+     * @param index 列索引, 从0开始
+     * @param name  列的标题名称, 可以为 null
+     * @param type  值的类型, 支持 String、基本类型及其包装类型、BigDecimal、BigInteger、Date、LocalDate、LocalDateTime、Instant
+     * @return 返回当前对象
+     */
+    public RowSchema addColumn(int index, String name, Class<?> type) {
+        if (index < 0) {
+            throw new IllegalArgumentException("column index must not be negative : " + index);
+        }
+        if (indexes.get(index)) {
+            throw new IllegalArgumentException("duplicate column index : " + index);
+        }
+        if (!isSupportedType(type)) {
+            throw new IllegalArgumentException("unsupported column type : " + type);
+        }
+        indexes.set(index);
+        columns.add(AnnotationHandler.newCellField(index, name, type));
+        return this;
+    }
+
+    /**
+     * 获取列的数量
+     *
+     * @return 返回列的数量
+     */
+    public int getColumnCount() {
+        return columns.size();
+    }
+
+    // 按添加顺序返回列定义
+    List<CellField> getColumns() {
+        if (columns.isEmpty()) {
+            throw new IllegalStateException("row schema has no column");
+        }
+        return Collections.unmodifiableList(columns);
+    }
+
+    private static boolean isSupportedType(Class<?> type) {
+        return type != null && (type == String.class || type.isPrimitive() && type != Void.TYPE && type != Character.TYPE
+                || type == Boolean.class || type == Byte.class || type == Short.class || type == Integer.class
+                || type == Long.class || type == Float.class || type == Double.class
+                || type == BigDecimal.class || type == BigInteger.class || ValueConverter.isDateType(type));
+    }
+
+}
@@ -0,0 +1,128 @@
+package org.fanlychie.jexcel.read;
+
+import org.apache.poi.hssf.record.FilePassRecord;
+import org.apache.poi.hssf.record.SSTRecord;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * SST 记录头检查流, 按 BIFF 记录边界跟踪经过的字节, 读到 SST 记录开头的字符串数量时立即检查读取限制,
+ * 不等 POI 构造出完整的 SST 记录. 遇到加密记录或 SST 记录之后不再检查
+ */
+final class SSTHeaderInputStream extends FilterInputStream {
+
+    private final ReadLimits readLimits;
+
+    /**
+     * 记录头4个字节及 SST 记录开头的8个字节
+     */
+    private final byte[] header = new byte[12];
+
+    private int headerLength;
+
+    /**
+     * 当前记录剩余的数据字节数
+     */
+    private int remaining;
+
+    private boolean sst;
+
+    private boolean done;
+
+    private SSTHeaderInputStream(InputStream in, ReadLimits readLimits) {
+        super(in);
+        this.readLimits = readLimits;
+    }
+
+    /**
+     * 按读取限制包装输入流, 没有限制共享字符串数量时原样返回
+     *
+     * @param in         工作簿记录流
+     * @param readLimits 读取限制, 可以为 null
+     * @return 返回检查 SST 记录头的输入流
+     */
+    static InputStream wrap(InputStream in, ReadLimits readLimits) {
+        if (readLimits == null || readLimits.getMaxSharedStrings() <= 0) {
+            return in;
+        }
+        return new SSTHeaderInputStream(in, readLimits);
+    }
+
+    @Override
+    public int read() throws IOException {
+        int b = in.read();
+        if (b >= 0 && !done) {
+            inspect((byte) b);
+        }
+        return b;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        int n = in.read(b, off, len);
+        for (int i = 0; i < n && !done; i++) {
+            inspect(b[off + i]);
+        }
+        return n;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        if (done) {
+            return in.skip(n);
+        }
+        byte[] buffer = new byte[(int) Math.min(n, 8192)];
+        int read = read(buffer, 0, buffer.length);
+        return Math.max(read, 0);
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    // 字符串总数为0时 POI 忽略唯一字符串数量
+    private void checkHeader() {
+        done = true;
+        int total = readInt(4);
+        int unique = readInt(8);
+        if (total != 0) {
+            readLimits.checkSharedStrings(unique < 0 ? Integer.MAX_VALUE : unique, 0);
+        }
+    }
+
+    private int readInt(int offset) {
+        return (header[offset] & 0xFF) | (header[offset + 1] & 0xFF) << 8
+                | (header[offset + 2] & 0xFF) << 16 | (header[offset + 3] & 0xFF) << 24;
+    }
+
+    private void inspect(byte b) {
+        if (headerLength < 4) {
+            header[headerLength++] = b;
+            if (headerLength == 4) {
+                int sid = (header[0] & 0xFF) | (header[1] & 0xFF) << 8;
+                remaining = (header[2] & 0xFF) | (header[3] & 0xFF) << 8;
+                sst = sid == SSTRecord.sid;
+                // 加密的工作簿数据不可读
+                done = sid == FilePassRecord.sid;
+                if (remaining == 0) {
+                    headerLength = 0;
+                }
+            }
+            return;
+        }
+        if (sst) {
+            header[headerLength++] = b;
+            if (headerLength == header.length) {
+                checkHeader();
+            }
+        }
+        if (--remaining == 0) {
+            headerLength = 0;
+            sst = false;
+        }
+    }
+
+}
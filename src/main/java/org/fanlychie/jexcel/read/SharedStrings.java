@@ -0,0 +1,23 @@
+package org.fanlychie.jexcel.read;
+
+/**
+ * 共享字符串表, 按索引取出工作表中 t="s" 单元格引用的字符串
+ */
+public interface SharedStrings {
+
+    /**
+     * 获取共享字符串
+     *
+     * @param index 共享字符串索引, 数值从0开始
+     * @return 返回共享字符串
+     */
+    String getEntryAt(int index);
+
+    /**
+     * 获取共享字符串的数量
+     *
+     * @return 返回共享字符串的数量
+     */
+    int getCount();
+
+}
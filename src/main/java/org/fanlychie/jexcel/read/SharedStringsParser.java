@@ -0,0 +1,118 @@
+package org.fanlychie.jexcel.read;
+
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * 共享字符串表解析器, 以 StAX 逐条解析 si 元素, 每个字符串回调 {@link #entry(String)}.
+ * 设置读取限制时, 部件字节数、字符串数量、字符总数及单个字符串的长度在解析过程中逐步检查
+ */
+abstract class SharedStringsParser {
+
+    private ReadLimits readLimits;
+
+    private int count;
+
+    private long chars;
+
+    /**
+     * @param readLimits 读取限制, 为 null 时不限制
+     */
+    SharedStringsParser(ReadLimits readLimits) {
+        this.readLimits = readLimits;
+    }
+
+    /**
+     * 解析共享字符串表, 输入流由调用方关闭
+     *
+     * @param stream 共享字符串表输入流
+     * @throws IOException
+     * @throws XMLStreamException
+     */
+    void parse(InputStream stream) throws IOException, XMLStreamException {
+        XMLStreamReader reader = ParserPool.inputFactory().createXMLStreamReader(LimitedInputStream.wrap(stream, readLimits));
+        try {
+            StringBuilder builder = new StringBuilder();
+            boolean tIsOpen = false;
+            // rPh 中的注音文本不计入字符串的值
+            boolean phoneticIsOpen = false;
+            while (reader.hasNext()) {
+                switch (reader.next()) {
+                    case XMLStreamConstants.START_ELEMENT:
+                        if ("si".equals(reader.getLocalName())) {
+                            builder.setLength(0);
+                        } else if ("t".equals(reader.getLocalName())) {
+                            tIsOpen = !phoneticIsOpen;
+                        } else if ("rPh".equals(reader.getLocalName())) {
+                            phoneticIsOpen = true;
+                        } else if ("sst".equals(reader.getLocalName())) {
+                            checkUniqueCount(reader.getAttributeValue(null, "uniqueCount"));
+                        }
+                        break;
+                    case XMLStreamConstants.CHARACTERS:
+                    case XMLStreamConstants.CDATA:
+                    case XMLStreamConstants.SPACE:
+                        if (tIsOpen) {
+                            builder.append(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+                            if (readLimits != null) {
+                                readLimits.checkCellLength(builder.length());
+                                readLimits.checkSharedStrings(count + 1, chars + builder.length());
+                            }
+                        }
+                        break;
+                    case XMLStreamConstants.END_ELEMENT:
+                        if ("si".equals(reader.getLocalName())) {
+                            ++count;
+                            chars += builder.length();
+                            if (readLimits != null) {
+                                readLimits.checkSharedStrings(count, chars);
+                            }
+                            entry(builder.toString());
+                        } else if ("t".equals(reader.getLocalName())) {
+                            tIsOpen = false;
+                        } else if ("rPh".equals(reader.getLocalName())) {
+                            phoneticIsOpen = false;
+                        }
+                        break;
+                    default:
+                        break;
+                }
+            }
+        } finally {
+            reader.close();
+        }
+    }
+
+    /**
+     * 获取已解析的字符串数量
+     *
+     * @return 返回字符串数量
+     */
+    int getCount() {
+        return count;
+    }
+
+    /**
+     * 字符串处理
+     *
+     * @param value 字符串, 未解码 _xHHHH_ 转义
+     * @throws IOException
+     */
+    abstract void entry(String value) throws IOException;
+
+    // sst 元素声明的字符串数量已超过限制时立即停止, 不等逐条计数
+    private void checkUniqueCount(String uniqueCount) {
+        if (readLimits == null || uniqueCount == null) {
+            return;
+        }
+        try {
+            readLimits.checkSharedStrings((int) Math.min(Long.parseLong(uniqueCount), Integer.MAX_VALUE), 0);
+        } catch (NumberFormatException e) {
+            // 声明的数量无效时按逐条计数检查
+        }
+    }
+
+}
@@ -0,0 +1,199 @@
+package org.fanlychie.jexcel.read;
+
+import org.apache.poi.hssf.record.BOFRecord;
+import org.apache.poi.hssf.record.BoundSheetRecord;
+import org.apache.poi.hssf.record.EOFRecord;
+import org.apache.poi.hssf.record.Record;
+import org.apache.poi.hssf.record.RecordFactoryInputStream;
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.poifs.filesystem.NPOIFSFileSystem;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.fanlychie.jexcel.exception.ExcelCastException;
+import org.fanlychie.jexcel.exception.ReadExcelException;
+import org.fanlychie.jexcel.exception.ReadLimitException;
+
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamReader;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 工作表目录, 从 workbook.xml 读取工作表的名称及关系ID, 可按索引或名称随时打开任意工作表.
+ * .xls 文件从工作簿全局子流的 BoundSheet 记录读取工作表的名称, 打开工作表时返回整个工作簿记录流.
+ * 读取目录时同样受读取限制.
+ * CSV 文件只有一个以文件名命名的工作表
+ */
+final class SheetCatalog {
+
+    private final XSSFReader reader;
+
+    private final NPOIFSFileSystem fileSystem;
+
+    private final String workbookEntryName;
+
+    private final Path csvPath;
+
+    private final List<String> names = new ArrayList<>();
+
+    private final List<String> relIds = new ArrayList<>();
+
+    private final Map<String, Integer> indexes = new HashMap<>();
+
+    SheetCatalog(XSSFReader reader, ReadLimits readLimits) throws Exception {
+        this.reader = reader;
+        this.fileSystem = null;
+        this.workbookEntryName = null;
+        this.csvPath = null;
+        InputStream stream = reader.getWorkbookData();
+        try {
+            XMLStreamReader streamReader = ParserPool.inputFactory().createXMLStreamReader(LimitedInputStream.wrap(stream, readLimits));
+            while (streamReader.hasNext()) {
+                if (streamReader.next() == XMLStreamConstants.START_ELEMENT
+                        && "sheet".equals(streamReader.getLocalName())) {
+                    String name = null, relId = null;
+                    for (int i = 0; i < streamReader.getAttributeCount(); i++) {
+                        String localName = streamReader.getAttributeLocalName(i);
+                        if ("name".equals(localName)) {
+                            name = streamReader.getAttributeValue(i);
+                        }
+                        // r:id => 工作表部件的关系ID
+                        else if ("id".equals(localName) && streamReader.getAttributeNamespace(i) != null) {
+                            relId = streamReader.getAttributeValue(i);
+                        }
+                    }
+                    indexes.put(name, names.size() + 1);
+                    names.add(name);
+                    relIds.add(relId);
+                }
+            }
+            streamReader.close();
+        } finally {
+            stream.close();
+        }
+    }
+
+    SheetCatalog(NPOIFSFileSystem fileSystem, ReadLimits readLimits) throws Exception {
+        this.reader = null;
+        this.fileSystem = fileSystem;
+        this.workbookEntryName = HSSFWorkbook.getWorkbookDirEntryName(fileSystem.getRoot());
+        this.csvPath = null;
+        InputStream stream = fileSystem.createDocumentInputStream(workbookEntryName);
+        try {
+            InputStream limitedStream = SSTHeaderInputStream.wrap(LimitedInputStream.wrap(stream, readLimits), readLimits);
+            RecordFactoryInputStream recordStream = new RecordFactoryInputStream(limitedStream, false);
+            Record record;
+            // 工作表的 BoundSheet 记录在工作簿全局子流中连续排列, 位于 SST 记录之前, 读完即停止, 不构造 SST 记录
+            while ((record = recordStream.nextRecord()) != null && record.getSid() != EOFRecord.sid) {
+                if (record.getSid() == BoundSheetRecord.sid) {
+                    String name = ((BoundSheetRecord) record).getSheetname();
+                    indexes.put(name, names.size() + 1);
+                    names.add(name);
+                } else if (!names.isEmpty()) {
+                    break;
+                } else if (record.getSid() == BOFRecord.sid && ((BOFRecord) record).getType() != BOFRecord.TYPE_WORKBOOK) {
+                    break;
+                }
+            }
+        } catch (RuntimeException e) {
+            // 记录构造过程中超过读取限制时 POI 会包装异常, 取出原异常
+            for (Throwable cause = e.getCause(); cause != null; cause = cause.getCause()) {
+                if (cause instanceof ReadLimitException) {
+                    throw (ReadLimitException) cause;
+                }
+            }
+            throw e;
+        } finally {
+            stream.close();
+        }
+    }
+
+    SheetCatalog(Path csvPath) {
+        this.reader = null;
+        this.fileSystem = null;
+        this.workbookEntryName = null;
+        this.csvPath = csvPath;
+        String name = csvPath.getFileName().toString();
+        indexes.put(name, 1);
+        names.add(name);
+    }
+
+    /**
+     * 是否是 .xls 文件的工作表目录
+     *
+     * @return .xls 文件返回 true
+     */
+    boolean isHSSF() {
+        return fileSystem != null;
+    }
+
+    /**
+     * 是否是 CSV 文件的工作表目录
+     *
+     * @return CSV 文件返回 true
+     */
+    boolean isCSV() {
+        return csvPath != null;
+    }
+
+    /**
+     * 获取工作表的名称列表, 按工作簿中的顺序
+     *
+     * @return 返回工作表的名称列表
+     */
+    List<String> getNames() {
+        return Collections.unmodifiableList(names);
+    }
+
+    /**
+     * 获取工作表的数量
+     *
+     * @return 返回工作表的数量
+     */
+    int size() {
+        return names.size();
+    }
+
+    /**
+     * 获取工作表的索引
+     *
+     * @param name 工作表名称
+     * @return 返回工作表索引, 从1开始
+     */
+    int indexOf(String name) {
+        Integer index = indexes.get(name);
+        if (index == null) {
+            throw new ReadExcelException("can not found sheet name : " + name);
+        }
+        return index;
+    }
+
+    /**
+     * 打开工作表, 每次调用返回新的输入流, .xls 文件返回整个工作簿记录流
+     *
+     * @param index 工作表索引, 从1开始
+     * @return 返回工作表输入流
+     */
+    InputStream open(int index) {
+        if (index < 1 || index > names.size()) {
+            throw new ReadExcelException("can not found sheet index : " + index);
+        }
+        try {
+            if (fileSystem != null) {
+                return fileSystem.createDocumentInputStream(workbookEntryName);
+            }
+            if (csvPath != null) {
+                return Files.newInputStream(csvPath);
+            }
+            return reader.getSheet(relIds.get(index - 1));
+        } catch (Exception e) {
+            throw new ExcelCastException(e);
+        }
+    }
+
+}
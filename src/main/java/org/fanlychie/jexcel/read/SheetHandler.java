@@ -0,0 +1,18 @@
+package org.fanlychie.jexcel.read;
+
+import java.util.List;
+
+/**
+ * 工作表处理器, 每解析完成一个工作表即回调一次, 并行解析时由解析该工作表的线程回调
+ */
+public interface SheetHandler<T> {
+
+    /**
+     * 工作表处理
+     *
+     * @param sheetIndex 工作表索引, 从1开始
+     * @param rows       工作表解析的结果列表
+     */
+    void handle(int sheetIndex, List<T> rows);
+
+}
@@ -0,0 +1,194 @@
+package org.fanlychie.jexcel.read;
+
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 工作表发布者, 按订阅者请求的数量逐行拉取解析, 没有请求时不向前解析, 不缓冲行数据.
+ * 只允许一个订阅者, 订阅结束(完成、出错或取消)时关闭工作表输入流及 Excel 对象
+ */
+final class SheetPublisher<T> implements Publisher<T> {
+
+    /**
+     * 拒绝订阅时使用的空订阅
+     */
+    private static final Subscription EMPTY = new Subscription() {
+        @Override
+        public void request(long n) {
+
+        }
+
+        @Override
+        public void cancel() {
+
+        }
+    };
+
+    private final ReadableExcel readableExcel;
+
+    private final int index;
+
+    private final Class<T> targetClass;
+
+    private final Executor executor;
+
+    private final AtomicBoolean subscribed = new AtomicBoolean();
+
+    /**
+     * @param readableExcel 可读的 Excel 对象
+     * @param index         工作表索引, 从1开始
+     * @param targetClass   目标类型
+     * @param executor      解析和回调订阅者的线程池, 为 null 时在调用 request 的线程中解析和回调
+     */
+    SheetPublisher(ReadableExcel readableExcel, int index, Class<T> targetClass, Executor executor) {
+        this.readableExcel = readableExcel;
+        this.index = index;
+        this.targetClass = targetClass;
+        this.executor = executor;
+    }
+
+    @Override
+    public void subscribe(Subscriber<? super T> subscriber) {
+        if (subscriber == null) {
+            throw new NullPointerException("subscriber");
+        }
+        if (!subscribed.compareAndSet(false, true)) {
+            subscriber.onSubscribe(EMPTY);
+            subscriber.onError(new IllegalStateException("sheet publisher allows only one subscriber"));
+            return;
+        }
+        subscriber.onSubscribe(new SheetSubscription(subscriber));
+    }
+
+    /**
+     * 工作表订阅, 请求、取消可在任意线程中调用, 同一时刻只有一个线程解析和回调订阅者
+     */
+    private class SheetSubscription implements Subscription, Runnable {
+
+        private final Subscriber<? super T> subscriber;
+
+        /**
+         * 未满足的请求数量
+         */
+        private final AtomicLong requested = new AtomicLong();
+
+        /**
+         * 待处理的调度次数, 不为0时已有线程在解析
+         */
+        private final AtomicInteger wip = new AtomicInteger();
+
+        private volatile boolean cancelled;
+
+        private volatile Throwable invalidRequest;
+
+        private RowIterator<T> iterator;
+
+        private boolean done;
+
+        SheetSubscription(Subscriber<? super T> subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                invalidRequest = new IllegalArgumentException("request must be positive, but was " + n);
+            } else {
+                long current, next;
+                do {
+                    current = requested.get();
+                    next = current + n < 0 ? Long.MAX_VALUE : current + n;
+                } while (!requested.compareAndSet(current, next));
+            }
+            schedule();
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            schedule();
+        }
+
+        private void schedule() {
+            if (wip.getAndIncrement() == 0) {
+                if (executor == null) {
+                    run();
+                } else {
+                    executor.execute(this);
+                }
+            }
+        }
+
+        @Override
+        public void run() {
+            int missed = 1;
+            do {
+                if (done) {
+                    return;
+                }
+                if (cancelled) {
+                    release();
+                    return;
+                }
+                if (invalidRequest != null) {
+                    release();
+                    subscriber.onError(invalidRequest);
+                    return;
+                }
+                long demand = requested.get();
+                long emitted = 0;
+                while (emitted != demand) {
+                    if (cancelled) {
+                        release();
+                        return;
+                    }
+                    T item;
+                    try {
+                        if (iterator == null) {
+                            iterator = readableExcel.iterateSheetAt(index, targetClass);
+                        }
+                        item = iterator.hasNext() ? iterator.next() : null;
+                    } catch (Throwable e) {
+                        release();
+                        subscriber.onError(e);
+                        return;
+                    }
+                    if (item == null) {
+                        release();
+                        subscriber.onComplete();
+                        return;
+                    }
+                    try {
+                        subscriber.onNext(item);
+                    } catch (RuntimeException e) {
+                        // 订阅者违反规范抛出异常, 视为取消
+                        release();
+                        throw e;
+                    }
+                    ++emitted;
+                }
+                if (emitted != 0 && demand != Long.MAX_VALUE) {
+                    requested.addAndGet(-emitted);
+                }
+                missed = wip.addAndGet(-missed);
+            } while (missed != 0);
+        }
+
+        // 关闭工作表输入流及 Excel 对象
+        private void release() {
+            done = true;
+            if (iterator != null) {
+                iterator.close();
+            }
+            readableExcel.close();
+        }
+
+    }
+
+}
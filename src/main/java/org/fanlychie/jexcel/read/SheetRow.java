@@ -0,0 +1,314 @@
+package org.fanlychie.jexcel.read;
+
+import org.fanlychie.jexcel.annotation.CellField;
+import org.fanlychie.jexcel.exception.ReadExcelException;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 工作表行视图, 按 {@link RowSchema} 读取时每行回调的行数据. 同一次解析的所有行共用一个实例, 单元格的值以字符串
+ * 存放在循环复用的缓冲区中, 取值时才按类型转换. 回调返回后即被下一行覆盖, 不可在回调之外持有其引用,
+ * 需要保留时使用 {@link #toArray()} 或 {@link #toMap()} 复制
+ */
+public final class SheetRow {
+
+    /**
+     * 按列定义的索引存放的列定义, 未定义的列为 null
+     */
+    private final CellField[] cellFields;
+
+    /**
+     * 列定义的索引
+     */
+    private final int[] columns;
+
+    private final String[] values;
+
+    /**
+     * 单元格在工作表中的列索引, 按标题行绑定时可能与列定义的索引不同
+     */
+    private final int[] sheetColumns;
+
+    /**
+     * 单元格的值是否为 Excel 日期序列值, 读取原始值时日期格式的单元格为 true
+     */
+    private final boolean[] dateValues;
+
+    private final DateFormatMemo[] dateFormatMemos;
+
+    private int rowNum;
+
+    private boolean empty = true;
+
+    SheetRow(List<CellField> cellFieldList) {
+        int length = 0;
+        for (CellField cellField : cellFieldList) {
+            length = Math.max(length, cellField.getIndex() + 1);
+        }
+        this.cellFields = new CellField[length];
+        this.columns = new int[cellFieldList.size()];
+        for (int i = 0; i < columns.length; i++) {
+            CellField cellField = cellFieldList.get(i);
+            cellFields[cellField.getIndex()] = cellField;
+            columns[i] = cellField.getIndex();
+        }
+        Arrays.sort(columns);
+        this.values = new String[length];
+        this.sheetColumns = new int[length];
+        this.dateValues = new boolean[length];
+        this.dateFormatMemos = DateFormatMemo.newArray(length);
+    }
+
+    /**
+     * 获取行号
+     *
+     * @return 返回行号, 从1开始
+     */
+    public int getRowNum() {
+        return rowNum;
+    }
+
+    /**
+     * 单元格是否为空
+     *
+     * @param column 列定义的索引, 从0开始
+     * @return 单元格为空或未定义该列时返回 true
+     */
+    public boolean isNull(int column) {
+        return column < 0 || column >= values.length || values[column] == null;
+    }
+
+    /**
+     * 获取单元格的字符串值
+     *
+     * @param column 列定义的索引, 从0开始
+     * @return 返回单元格的字符串值, 为空时返回 null
+     */
+    public String getString(int column) {
+        return column >= 0 && column < values.length ? values[column] : null;
+    }
+
+    /**
+     * 获取单元格的 int 值
+     *
+     * @param column 列定义的索引, 从0开始
+     * @return 返回单元格的 int 值
+     */
+    public int getInt(int column) {
+        String value = requireValue(column);
+        try {
+            return ValueConverter.convertIntValue(value);
+        } catch (Exception e) {
+            throw parseError(column, e);
+        }
+    }
+
+    /**
+     * 获取单元格的 long 值
+     *
+     * @param column 列定义的索引, 从0开始
+     * @return 返回单元格的 long 值
+     */
+    public long getLong(int column) {
+        String value = requireValue(column);
+        try {
+            return ValueConverter.convertLongValue(value);
+        } catch (Exception e) {
+            throw parseError(column, e);
+        }
+    }
+
+    /**
+     * 获取单元格的 double 值
+     *
+     * @param column 列定义的索引, 从0开始
+     * @return 返回单元格的 double 值
+     */
+    public double getDouble(int column) {
+        String value = requireValue(column);
+        try {
+            return ValueConverter.convertDoubleValue(value);
+        } catch (Exception e) {
+            throw parseError(column, e);
+        }
+    }
+
+    /**
+     * 获取单元格的 BigDecimal 值
+     *
+     * @param column 列定义的索引, 从0开始
+     * @return 返回单元格的 BigDecimal 值, 为空时返回 null
+     */
+    public BigDecimal getBigDecimal(int column) {
+        return (BigDecimal) getValue(column, BigDecimal.class);
+    }
+
+    /**
+     * 获取单元格的 boolean 值, 支持 1/0、是/否、Y/N、YES/NO、T/F、TRUE/FALSE
+     *
+     * @param column 列定义的索引, 从0开始
+     * @return 返回单元格的 boolean 值
+     */
+    public boolean getBoolean(int column) {
+        return (Boolean) getValue(column, Boolean.TYPE);
+    }
+
+    /**
+     * 获取单元格的日期值
+     *
+     * @param column 列定义的索引, 从0开始
+     * @return 返回单元格的日期值, 为空时返回 null
+     */
+    public Date getDate(int column) {
+        return (Date) getValue(column, Date.class);
+    }
+
+    /**
+     * 按列定义的类型获取单元格的值, 各类型的取值方法与之一样, 未定义的列抛出 {@link IllegalArgumentException}
+     *
+     * @param column 列定义的索引, 从0开始
+     * @return 返回单元格的值, 为空时返回 null
+     */
+    public Object getValue(int column) {
+        Class<?> type = requireField(column).getType();
+        return getValue(column, type.isPrimitive() && values[column] == null ? wrap(type) : type);
+    }
+
+    /**
+     * 复制当前行按列定义的类型转换后的值
+     *
+     * @return 返回按列定义的索引存放的值数组, 长度为最大索引加1, 未定义的列及空单元格为 null
+     */
+    public Object[] toArray() {
+        Object[] array = new Object[values.length];
+        for (int column : columns) {
+            array[column] = getValue(column);
+        }
+        return array;
+    }
+
+    /**
+     * 复制当前行按列定义的类型转换后的值
+     *
+     * @return 返回按列的标题名称存放的值, 没有名称的列以索引的字符串作为键, 按索引排序
+     */
+    public Map<String, Object> toMap() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        for (int column : columns) {
+            String name = cellFields[column].getName();
+            map.put(name != null ? name : String.valueOf(column), getValue(column));
+        }
+        return map;
+    }
+
+    @Override
+    public String toString() {
+        return rowNum + ":" + Arrays.toString(toArray());
+    }
+
+    // 设置单元格的值
+    void setValue(int column, int sheetColumn, String value, boolean dateValue) {
+        values[column] = value;
+        sheetColumns[column] = sheetColumn;
+        dateValues[column] = dateValue;
+        empty = false;
+    }
+
+    // 开始新的一行
+    void startRow(int rowNum) {
+        this.rowNum = rowNum;
+    }
+
+    // 当前行是否没有任何值
+    boolean isEmpty() {
+        return empty;
+    }
+
+    // 清空当前行, 只清理定义的列
+    void clear() {
+        for (int column : columns) {
+            values[column] = null;
+            dateValues[column] = false;
+        }
+        empty = true;
+    }
+
+    // 按类型转换单元格的值
+    private Object getValue(int column, Class<?> type) {
+        requireField(column);
+        String value = values[column];
+        if (value == null) {
+            if (type.isPrimitive()) {
+                throw new ReadExcelException("Parse " + cellName(column) + " error : the cell is empty");
+            }
+            return null;
+        }
+        try {
+            if (ValueConverter.isDateType(type)) {
+                if (dateValues[column]) {
+                    return ValueConverter.convertExcelDateValue(value, type);
+                }
+                return ValueConverter.convertDateValue(value, type, dateFormatMemos[column]);
+            }
+            return ValueConverter.convertObjectValue(value, type, dateFormatMemos[column]);
+        } catch (Exception e) {
+            throw parseError(column, e);
+        }
+    }
+
+    // 取值的列须在行定义中, 未定义的列抛出 IllegalArgumentException
+    private CellField requireField(int column) {
+        CellField cellField = column >= 0 && column < cellFields.length ? cellFields[column] : null;
+        if (cellField == null) {
+            throw new IllegalArgumentException("column " + column + " is not defined in the row schema");
+        }
+        return cellField;
+    }
+
+    private String requireValue(int column) {
+        requireField(column);
+        String value = values[column];
+        if (value == null) {
+            throw new ReadExcelException("Parse " + cellName(column) + " error : the cell is empty");
+        }
+        return value;
+    }
+
+    private ReadExcelException parseError(int column, Exception e) {
+        return new ReadExcelException("Parse " + cellName(column) + " error : " + e);
+    }
+
+    // 单元格在工作表中的名称, 如 AA12
+    private String cellName(int column) {
+        return XSSFCellDecoder.cellName(values[column] != null ? sheetColumns[column] : column, rowNum);
+    }
+
+    // 基本类型对应的包装类型, 空单元格按包装类型返回 null
+    private static Class<?> wrap(Class<?> type) {
+        if (type == Integer.TYPE) {
+            return Integer.class;
+        }
+        if (type == Long.TYPE) {
+            return Long.class;
+        }
+        if (type == Double.TYPE) {
+            return Double.class;
+        }
+        if (type == Float.TYPE) {
+            return Float.class;
+        }
+        if (type == Short.TYPE) {
+            return Short.class;
+        }
+        if (type == Byte.TYPE) {
+            return Byte.class;
+        }
+        return Boolean.class;
+    }
+
+}
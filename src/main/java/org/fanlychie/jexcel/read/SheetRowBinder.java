@@ -0,0 +1,67 @@
+package org.fanlychie.jexcel.read;
+
+import org.fanlychie.jexcel.annotation.CellField;
+
+import java.util.List;
+
+/**
+ * 行视图绑定器, 将单元格的值写入循环复用的 {@link SheetRow}, 每完成一行即交给行处理器, 不创建对象
+ */
+final class SheetRowBinder implements CellBinder {
+
+    private final RowHandler<SheetRow> rowHandler;
+
+    private final CellField[] cellFields;
+
+    private final int startRow;
+
+    private final SheetRow sheetRow;
+
+    /**
+     * @param cellFieldList 行定义的列
+     * @param cellFields    按工作表列索引存放的列定义
+     * @param startRow      起始行号
+     * @param rowHandler    行处理器
+     */
+    SheetRowBinder(List<CellField> cellFieldList, CellField[] cellFields, int startRow, RowHandler<SheetRow> rowHandler) {
+        this.rowHandler = rowHandler;
+        this.cellFields = cellFields;
+        this.startRow = startRow;
+        this.sheetRow = new SheetRow(cellFieldList);
+    }
+
+    @Override
+    public void bindCell(int column, int row, String value) {
+        bindCell(column, row, value, false);
+    }
+
+    @Override
+    public void bindRawCell(int column, int row, String rawValue, boolean dateFormatted) {
+        bindCell(column, row, rawValue, dateFormatted);
+    }
+
+    private void bindCell(int column, int row, String value, boolean dateValue) {
+        if (row >= startRow && column < cellFields.length && cellFields[column] != null) {
+            if (row != sheetRow.getRowNum()) {
+                flush();
+                sheetRow.startRow(row);
+            }
+            sheetRow.setValue(cellFields[column].getIndex(), column, value, dateValue);
+        }
+    }
+
+    /**
+     * 交出当前行, 回调返回后清空复用
+     */
+    @Override
+    public void flush() {
+        if (!sheetRow.isEmpty()) {
+            try {
+                rowHandler.handle(sheetRow, sheetRow.getRowNum());
+            } finally {
+                sheetRow.clear();
+            }
+        }
+    }
+
+}
@@ -0,0 +1,24 @@
+package org.fanlychie.jexcel.read;
+
+import java.io.Closeable;
+
+/**
+ * 拉取式工作表读取器, 由 {@link RowIterator} 逐行驱动, 不同文件格式的读取器共用
+ */
+interface SheetRowReader extends Closeable {
+
+    /**
+     * 向前解析一行
+     *
+     * @return 若已到达工作表末尾则返回 false
+     * @throws Exception
+     */
+    boolean nextRow() throws Exception;
+
+    /**
+     * 关闭读取器
+     */
+    @Override
+    void close();
+
+}
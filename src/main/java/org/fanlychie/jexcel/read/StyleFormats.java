@@ -0,0 +1,155 @@
+package org.fanlychie.jexcel.read;
+
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackagePart;
+import org.apache.poi.ss.usermodel.BuiltinFormats;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.usermodel.XSSFCellStyle;
+import org.apache.poi.xssf.usermodel.XSSFRelation;
+
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 样式格式表, 每个工作簿构建一次, 按样式索引存放数据格式的索引、格式字符串及是否为日期格式,
+ * 解析单元格时按 s 属性直接取数组元素, 不再创建 XSSFCellStyle
+ */
+final class StyleFormats {
+
+    private final short[] formatIndex;
+
+    private final String[] formatString;
+
+    private final BitSet dateFormats;
+
+    StyleFormats(StylesTable stylesTable) {
+        this(stylesTable != null ? stylesTable.getNumCellStyles() : 0);
+        for (int i = 0; i < formatIndex.length; i++) {
+            XSSFCellStyle style = stylesTable.getStyleAt(i);
+            put(i, style.getDataFormat(), style.getDataFormatString());
+        }
+    }
+
+    /**
+     * 以 StAX 读取 styles.xml, 只取 numFmts 中的自定义格式及 cellXfs 中各样式的 numFmtId,
+     * 不构建 StylesTable, 部件解压后的字节数受读取限制
+     *
+     * @param opcPackage Excel 文件包
+     * @param readLimits 读取限制, 为 null 时不限制
+     * @return 返回样式格式表
+     * @throws IOException
+     * @throws XMLStreamException
+     */
+    static StyleFormats read(OPCPackage opcPackage, ReadLimits readLimits) throws IOException, XMLStreamException {
+        List<Short> styles = new ArrayList<>();
+        Map<Short, String> formats = new HashMap<>();
+        List<PackagePart> parts = opcPackage.getPartsByContentType(XSSFRelation.STYLES.getContentType());
+        if (!parts.isEmpty()) {
+            InputStream stream = parts.get(0).getInputStream();
+            try {
+                XMLStreamReader reader = ParserPool.inputFactory().createXMLStreamReader(LimitedInputStream.wrap(stream, readLimits));
+                boolean cellXfs = false;
+                while (reader.hasNext()) {
+                    int event = reader.next();
+                    if (event == XMLStreamConstants.START_ELEMENT) {
+                        String localName = reader.getLocalName();
+                        if ("numFmt".equals(localName)) {
+                            formats.put(numFmtId(reader), reader.getAttributeValue(null, "formatCode"));
+                        } else if ("cellXfs".equals(localName)) {
+                            cellXfs = true;
+                        }
+                        // cellStyleXfs 中的 xf 不是单元格样式
+                        else if (cellXfs && "xf".equals(localName)) {
+                            styles.add(numFmtId(reader));
+                        }
+                    } else if (event == XMLStreamConstants.END_ELEMENT && "cellXfs".equals(reader.getLocalName())) {
+                        cellXfs = false;
+                    }
+                }
+                reader.close();
+            } finally {
+                stream.close();
+            }
+        }
+        StyleFormats styleFormats = new StyleFormats(styles.size());
+        for (int i = 0; i < styles.size(); i++) {
+            short index = styles.get(i);
+            styleFormats.put(i, index, formats.get(index));
+        }
+        return styleFormats;
+    }
+
+    private StyleFormats(int count) {
+        this.formatIndex = new short[count];
+        this.formatString = new String[count];
+        this.dateFormats = new BitSet(count);
+    }
+
+    // 存放样式的数据格式, 自定义格式优先于内置格式
+    private void put(int styleIndex, short index, String format) {
+        if (format == null) {
+            format = BuiltinFormats.getBuiltinFormat(index);
+        }
+        formatIndex[styleIndex] = index;
+        formatString[styleIndex] = format;
+        if (format != null && DateUtil.isADateFormat(index, format)) {
+            dateFormats.set(styleIndex);
+        }
+    }
+
+    // numFmtId 与 StylesTable 一样按 short 截取, 缺省为0
+    private static short numFmtId(XMLStreamReader reader) {
+        String value = reader.getAttributeValue(null, "numFmtId");
+        return value != null ? (short) Long.parseLong(value) : 0;
+    }
+
+    /**
+     * 样式是否存在
+     *
+     * @param styleIndex 样式索引
+     * @return 存在返回 true
+     */
+    boolean contains(int styleIndex) {
+        return styleIndex >= 0 && styleIndex < formatIndex.length;
+    }
+
+    /**
+     * 获取数据格式的索引
+     *
+     * @param styleIndex 样式索引
+     * @return 返回数据格式的索引
+     */
+    short getFormatIndex(int styleIndex) {
+        return formatIndex[styleIndex];
+    }
+
+    /**
+     * 获取数据格式字符串
+     *
+     * @param styleIndex 样式索引
+     * @return 返回数据格式字符串, 没有格式时返回 null
+     */
+    String getFormatString(int styleIndex) {
+        return formatString[styleIndex];
+    }
+
+    /**
+     * 是否为日期格式
+     *
+     * @param styleIndex 样式索引
+     * @return 日期格式返回 true
+     */
+    boolean isDateFormat(int styleIndex) {
+        return dateFormats.get(styleIndex);
+    }
+
+}
@@ -1,12 +1,21 @@
 package org.fanlychie.jexcel.read;
 
-import org.fanlychie.jexcel.exception.ExcelCastException;
+import org.apache.poi.ss.usermodel.DateUtil;
 
-import java.text.DateFormat;
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.text.ParsePosition;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeFormatterBuilder;
+import java.time.format.SignStyle;
+import java.time.temporal.ChronoField;
+import java.time.temporal.TemporalAccessor;
 import java.util.Date;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -24,9 +33,25 @@ public final class ValueConverter {
 
     private static final Pattern TIMESTAMP_STRING_REGEX = Pattern.compile("[1-9]\\d{12,}");
 
-    private static final ConcurrentHashMap<String, DateFormat> PATTERN_FORMAT = new ConcurrentHashMap<>();
 
+    /**
+     * 日期格式记忆, 用于没有指定列的转换
+     */
+    private static final DateFormatMemo SHARED_DATE_FORMAT_MEMO = new DateFormatMemo();
+
+    /**
+     * 转换值, 日期类型按 {@link #convertDateValue(String, Class)} 严格解析并记住识别出的格式
+     *
+     * @param value 字符串值
+     * @param type  目标类型
+     * @return 返回转换后的值
+     */
     public static Object convertObjectValue(String value, Class<?> type) {
+        return convertObjectValue(value, type, SHARED_DATE_FORMAT_MEMO);
+    }
+
+    // 转换值, 日期类型使用指定的日期格式记忆
+    static Object convertObjectValue(String value, Class<?> type, DateFormatMemo memo) {
         if (value == null) {
             if (!type.isPrimitive()) {
                 return null;
@@ -40,57 +65,165 @@ public final class ValueConverter {
         if (type == Boolean.TYPE || type == Boolean.class) {
             return convertBooleanValue(value);
         }
-        if (type == Date.class) {
-            Matcher matcher = DATETIME_STRING_REGEX.matcher(value);
-            if (matcher.matches()) {
-                String pattern = matcher.replaceAll("yyyy$2MM$4dd$6$7HH$9mm$11ss$13");
-                return parseStringToDate(value, pattern);
-            }
-            matcher = DATE_STRING_REGEX.matcher(value);
-            if (matcher.matches()) {
-                String pattern = matcher.replaceAll("yyyy$2MM$4dd$6");
-                return parseStringToDate(value, pattern);
-            }
-            matcher = TIMESTAMP_STRING_REGEX.matcher(value);
-            if (matcher.matches()) {
-                return new Date(Long.parseLong(value));
-            }
-            matcher = TIME_STRING_REGEX.matcher(value);
-            if (matcher.matches()) {
-                String pattern = matcher.replaceAll("HH$2mm$4ss$6");
-                return parseStringToDate(value, pattern);
-            }
-            throw new ClassCastException("can not parse \"" + value + "\" to java.util.Date");
+        if (isDateType(type)) {
+            return convertDateValue(value, type, memo);
         }
-        Double doubleValue = Double.valueOf(value);
         if (type == Byte.TYPE || type == Byte.class) {
-            return doubleValue.byteValue();
+            return convertByteValue(value);
         }
         if (type == Short.TYPE || type == Short.class) {
-            return doubleValue.shortValue();
+            return convertShortValue(value);
         }
         if (type == Integer.TYPE || type == Integer.class) {
-            return doubleValue.intValue();
+            return convertIntValue(value);
         }
         if (type == Long.TYPE || type == Long.class) {
-            return doubleValue.longValue();
+            return convertLongValue(value);
         }
         if (type == Float.TYPE || type == Float.class) {
-            return doubleValue.floatValue();
+            return convertFloatValue(value);
         }
         if (type == Double.TYPE || type == Double.class) {
-            return doubleValue;
+            return convertDoubleValue(value);
+        }
+        if (type == BigDecimal.class) {
+            return new BigDecimal(value);
+        }
+        if (type == BigInteger.class) {
+            return isPlainInteger(value) ? new BigInteger(value) : new BigDecimal(value).toBigInteger();
         }
         throw new ClassCastException("Cannot cast java.lang.String to " + type.getName());
     }
 
+    /**
+     * 转换为 long 值, 整数字符串逐位解析, 不经过 double, 超过 2^53 的整数不会丢失精度;
+     * 小数或科学计数法表示的数值按 double 解析后截断
+     *
+     * @param value 字符串值
+     * @return 返回 long 值
+     */
+    public static long convertLongValue(String value) {
+        int length = value.length();
+        int i = 0;
+        boolean negative = false;
+        if (length > 0) {
+            char first = value.charAt(0);
+            if (first == '-' || first == '+') {
+                negative = first == '-';
+                i = 1;
+            }
+        }
+        if (i == length) {
+            throw new NumberFormatException("For input string: \"" + value + "\"");
+        }
+        long limit = negative ? Long.MIN_VALUE : -Long.MAX_VALUE;
+        long multmin = limit / 10;
+        // 以负数累加, 避免 Long.MIN_VALUE 溢出
+        long result = 0;
+        for (; i < length; i++) {
+            int digit = value.charAt(i) - '0';
+            if (digit < 0 || digit > 9 || result < multmin) {
+                return (long) Double.parseDouble(value);
+            }
+            result *= 10;
+            if (result < limit + digit) {
+                return (long) Double.parseDouble(value);
+            }
+            result -= digit;
+        }
+        return negative ? result : -result;
+    }
+
+    /**
+     * 转换为 int 值
+     *
+     * @param value 字符串值
+     * @return 返回 int 值
+     */
+    public static int convertIntValue(String value) {
+        long longValue = convertLongValue(value);
+        if (longValue > Integer.MAX_VALUE) {
+            return Integer.MAX_VALUE;
+        }
+        if (longValue < Integer.MIN_VALUE) {
+            return Integer.MIN_VALUE;
+        }
+        return (int) longValue;
+    }
+
+    /**
+     * 转换为 short 值
+     *
+     * @param value 字符串值
+     * @return 返回 short 值
+     */
+    public static short convertShortValue(String value) {
+        return (short) convertIntValue(value);
+    }
+
+    /**
+     * 转换为 byte 值
+     *
+     * @param value 字符串值
+     * @return 返回 byte 值
+     */
+    public static byte convertByteValue(String value) {
+        return (byte) convertIntValue(value);
+    }
+
+    /**
+     * 转换为 double 值
+     *
+     * @param value 字符串值
+     * @return 返回 double 值
+     */
+    public static double convertDoubleValue(String value) {
+        return Double.parseDouble(value);
+    }
+
+    /**
+     * 转换为 float 值
+     *
+     * @param value 字符串值
+     * @return 返回 float 值
+     */
+    public static float convertFloatValue(String value) {
+        return (float) Double.parseDouble(value);
+    }
+
+    /**
+     * 转换 Excel 日期序列值为日期
+     *
+     * @param value Excel 日期序列值的字符串
+     * @return 返回日期
+     */
+    public static Date convertExcelDateValue(String value) {
+        return DateUtil.getJavaDate(Double.parseDouble(value));
+    }
+
+    // 是否是不带小数点和指数的整数
+    private static boolean isPlainInteger(String value) {
+        int length = value.length();
+        int i = length > 0 && (value.charAt(0) == '-' || value.charAt(0) == '+') ? 1 : 0;
+        if (i == length) {
+            return false;
+        }
+        for (; i < length; i++) {
+            char c = value.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+
     private static boolean convertBooleanValue(String value) {
-        if (value == "1" || value.equals("是")
+        if (value.equals("1") || value.equals("是")
                 || value.equalsIgnoreCase("Y") || value.equalsIgnoreCase("YES")
                 || value.equalsIgnoreCase("T") || value.equalsIgnoreCase("TRUE")) {
             return true;
         }
-        if (value == "0" || value.equals("否")
+        if (value.equals("0") || value.equals("否")
                 || value.equalsIgnoreCase("N") || value.equalsIgnoreCase("NO")
                 || value.equalsIgnoreCase("F") || value.equalsIgnoreCase("FALSE")) {
             return false;
@@ -98,14 +231,159 @@ public final class ValueConverter {
         throw new ClassCastException("cannot cast java.lang.String to boolean");
     }
 
-    private static Date parseStringToDate(String value, String pattern) {
-        if (!PATTERN_FORMAT.containsKey(pattern)) {
-            PATTERN_FORMAT.put(pattern, new SimpleDateFormat(pattern));
+    /**
+     * 是否是支持的日期类型
+     *
+     * @param type 类型
+     * @return 支持的日期类型返回 true
+     */
+    public static boolean isDateType(Class<?> type) {
+        return type == Date.class || type == LocalDateTime.class || type == LocalDate.class || type == Instant.class;
+    }
+
+    /**
+     * 转换日期值, 优先使用上次识别出的日期格式, 失败时再重新识别并记住新的格式.
+     * 支持 java.util.Date, LocalDate, LocalDateTime, Instant.
+     * 日期按识别出的格式严格解析, 超出范围的月、日、时、分、秒(如 2020-13-01)不再像 SimpleDateFormat 那样顺延, 而是抛出异常
+     *
+     * @param value 字符串值
+     * @param type  日期类型
+     * @return 返回日期值
+     */
+    public static Object convertDateValue(String value, Class<?> type) {
+        return convertDateValue(value, type, SHARED_DATE_FORMAT_MEMO);
+    }
+
+    // 转换日期值, 使用指定的日期格式记忆
+    static Object convertDateValue(String value, Class<?> type, DateFormatMemo memo) {
+        LocalDateTime dateTime = null;
+        DateTimeFormatter formatter = memo.formatter;
+        if (formatter != null) {
+            dateTime = parseLocalDateTime(value, formatter);
+        }
+        if (dateTime == null) {
+            formatter = detectDateFormatter(value);
+            if (formatter != null) {
+                dateTime = parseLocalDateTime(value, formatter);
+                if (dateTime != null) {
+                    memo.formatter = formatter;
+                }
+            } else if (TIMESTAMP_STRING_REGEX.matcher(value).matches()) {
+                return convertInstant(Instant.ofEpochMilli(Long.parseLong(value)), type);
+            }
+        }
+        if (dateTime == null) {
+            throw new ClassCastException("can not parse \"" + value + "\" to " + type.getName());
+        }
+        if (type == LocalDateTime.class) {
+            return dateTime;
+        }
+        if (type == LocalDate.class) {
+            return dateTime.toLocalDate();
+        }
+        return convertInstant(dateTime.atZone(ZoneId.systemDefault()).toInstant(), type);
+    }
+
+    /**
+     * 转换 Excel 日期序列值为日期
+     *
+     * @param value Excel 日期序列值的字符串
+     * @param type  日期类型
+     * @return 返回日期值
+     */
+    public static Object convertExcelDateValue(String value, Class<?> type) {
+        Date date = convertExcelDateValue(value);
+        if (type == Date.class) {
+            return date;
+        }
+        LocalDateTime dateTime = LocalDateTime.ofInstant(date.toInstant(), ZoneId.systemDefault());
+        if (type == LocalDate.class) {
+            return dateTime.toLocalDate();
+        }
+        return convertInstant(date.toInstant(), type);
+    }
+
+    private static Object convertInstant(Instant instant, Class<?> type) {
+        if (type == Instant.class) {
+            return instant;
+        }
+        if (type == Date.class) {
+            return Date.from(instant);
+        }
+        LocalDateTime dateTime = LocalDateTime.ofInstant(instant, ZoneId.systemDefault());
+        return type == LocalDate.class ? dateTime.toLocalDate() : dateTime;
+    }
+
+    // 识别日期格式, 无法识别时返回 null
+    private static DateTimeFormatter detectDateFormatter(String value) {
+        Matcher matcher = DATETIME_STRING_REGEX.matcher(value);
+        if (matcher.matches()) {
+            DateTimeFormatterBuilder builder = new DateTimeFormatterBuilder();
+            appendDate(builder, matcher, 1);
+            builder.appendLiteral(matcher.group(7));
+            appendTime(builder, matcher, 8);
+            return builder.toFormatter();
+        }
+        matcher = DATE_STRING_REGEX.matcher(value);
+        if (matcher.matches()) {
+            DateTimeFormatterBuilder builder = new DateTimeFormatterBuilder();
+            appendDate(builder, matcher, 1);
+            return builder.toFormatter();
+        }
+        if (TIMESTAMP_STRING_REGEX.matcher(value).matches()) {
+            return null;
+        }
+        matcher = TIME_STRING_REGEX.matcher(value);
+        if (matcher.matches()) {
+            DateTimeFormatterBuilder builder = new DateTimeFormatterBuilder();
+            appendTime(builder, matcher, 1);
+            return builder.toFormatter();
+        }
+        return null;
+    }
+
+    // 年, 分隔符, 月, 分隔符, 日, 后缀
+    private static void appendDate(DateTimeFormatterBuilder builder, Matcher matcher, int group) {
+        builder.appendValue(ChronoField.YEAR, 4)
+                .appendLiteral(matcher.group(group + 1))
+                .appendValue(ChronoField.MONTH_OF_YEAR, 1, 2, SignStyle.NOT_NEGATIVE)
+                .appendLiteral(matcher.group(group + 3))
+                .appendValue(ChronoField.DAY_OF_MONTH, 1, 2, SignStyle.NOT_NEGATIVE)
+                .appendLiteral(matcher.group(group + 5));
+    }
+
+    // 时, 分隔符, 分, 分隔符, 秒, 后缀
+    private static void appendTime(DateTimeFormatterBuilder builder, Matcher matcher, int group) {
+        builder.appendValue(ChronoField.HOUR_OF_DAY, 1, 2, SignStyle.NOT_NEGATIVE)
+                .appendLiteral(matcher.group(group + 1))
+                .appendValue(ChronoField.MINUTE_OF_HOUR, 1, 2, SignStyle.NOT_NEGATIVE)
+                .appendLiteral(matcher.group(group + 3))
+                .appendValue(ChronoField.SECOND_OF_MINUTE, 1, 2, SignStyle.NOT_NEGATIVE)
+                .appendLiteral(matcher.group(group + 5));
+    }
+
+    // 按格式解析日期时间, 格式不匹配时返回 null, 不抛出异常; 只有时间的格式取 1970-01-01
+    private static LocalDateTime parseLocalDateTime(String value, DateTimeFormatter formatter) {
+        ParsePosition position = new ParsePosition(0);
+        TemporalAccessor parsed = formatter.parseUnresolved(value, position);
+        if (parsed == null || position.getErrorIndex() >= 0 || position.getIndex() != value.length()) {
+            return null;
+        }
+        int year = 1970, month = 1, day = 1, hour = 0, minute = 0, second = 0;
+        if (parsed.isSupported(ChronoField.YEAR)) {
+            year = (int) parsed.getLong(ChronoField.YEAR);
+            month = (int) parsed.getLong(ChronoField.MONTH_OF_YEAR);
+            day = (int) parsed.getLong(ChronoField.DAY_OF_MONTH);
+        }
+        if (parsed.isSupported(ChronoField.HOUR_OF_DAY)) {
+            hour = (int) parsed.getLong(ChronoField.HOUR_OF_DAY);
+            minute = (int) parsed.getLong(ChronoField.MINUTE_OF_HOUR);
+            second = (int) parsed.getLong(ChronoField.SECOND_OF_MINUTE);
         }
         try {
-            return PATTERN_FORMAT.get(pattern).parse(value);
-        } catch (ParseException e) {
-            throw new ExcelCastException(e);
+            return LocalDateTime.of(year, month, day, hour, minute, second);
+        } catch (DateTimeException e) {
+            return null;
         }
     }
 
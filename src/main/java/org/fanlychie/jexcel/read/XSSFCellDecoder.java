@@ -0,0 +1,449 @@
+package org.fanlychie.jexcel.read;
+
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.util.CellReference;
+import org.fanlychie.jexcel.exception.ExcelCastException;
+import org.fanlychie.jexcel.exception.ReadExcelException;
+
+import java.util.BitSet;
+
+/**
+ * XSSF 单元格值解码器, 由 SAX 与 StAX 两种工作表解析方式共用
+ */
+final class XSSFCellDecoder {
+
+    private StyleFormats styleFormats;
+
+    private SharedStrings sharedStrings;
+
+    private XSSFDataType nextDataType;
+
+    private short formatIndex;
+
+    private String formatString;
+
+    private DataFormatter formatter = new DataFormatter();
+
+    /**
+     * 共享字符串解码缓存的大小, 2的幂
+     */
+    private static final int SST_CACHE_SIZE = 4096;
+
+    /**
+     * 解析单元格引用时列索引的上限, 再追加一个字母即溢出
+     */
+    static final int MAX_COLUMN = Integer.MAX_VALUE / 26 - 1;
+
+    /**
+     * 单元格引用中行号的最大位数, 不会溢出
+     */
+    static final int MAX_ROW_DIGITS = 9;
+
+    /**
+     * 共享字符串解码缓存, 按索引取模直接映射, 重复的索引返回同一个字符串实例
+     */
+    private int[] sstCacheKeys;
+
+    private String[] sstCacheValues;
+
+    private BitSet columns;
+
+    private BitSet rawColumns;
+
+    private boolean rawCell;
+
+    private int firstRow;
+
+    private int lastRow;
+
+    private int currentRow;
+
+    private int currentColumn = -1;
+
+    private boolean dateFormatted;
+
+    private ReadLimits readLimits;
+
+    enum XSSFDataType {BOOL, ERROR, FORMULA, INLINESTR, SSTINDEX, NUMBER}
+
+    XSSFCellDecoder(StyleFormats styleFormats, SharedStrings sharedStrings) {
+        this.styleFormats = styleFormats;
+        this.sharedStrings = sharedStrings;
+    }
+
+    /**
+     * 设置需要解析的列
+     *
+     * @param columns 需要解析的列索引集合, 为 null 时解析所有的列
+     */
+    void setColumns(BitSet columns) {
+        this.columns = columns;
+    }
+
+    /**
+     * 设置直接输出原始值的列, 这些列的数值单元格不经过 DataFormatter 格式化
+     *
+     * @param rawColumns 输出原始值的列索引集合, 为 null 时所有的列都输出格式化后的值
+     */
+    void setRawColumns(BitSet rawColumns) {
+        this.rawColumns = rawColumns;
+    }
+
+    /**
+     * 设置解析的行范围
+     *
+     * @param firstRow 起始行号, 从1开始, 之前的行不解码
+     * @param lastRow  结束行号, 从1开始, 小于1时解析到最后一行
+     */
+    void setRowRange(int firstRow, int lastRow) {
+        this.firstRow = firstRow;
+        this.lastRow = lastRow;
+    }
+
+    /**
+     * 设置读取限制
+     *
+     * @param readLimits 读取限制, 为 null 时不限制
+     */
+    void setReadLimits(ReadLimits readLimits) {
+        this.readLimits = readLimits;
+    }
+
+    /**
+     * 检查当前行号和列索引是否超过读取限制, 应在确认未超过结束行之后调用
+     */
+    void checkLimits() {
+        if (readLimits != null) {
+            readLimits.checkRow(currentRow);
+            readLimits.checkColumn(currentColumn);
+        }
+    }
+
+    /**
+     * 检查单元格文本的长度是否超过读取限制, 用于取值过程中逐步检查
+     *
+     * @param length 已读取的文本长度
+     */
+    void checkCellLength(long length) {
+        if (readLimits != null) {
+            readLimits.checkCellLength(length);
+        }
+    }
+
+    /**
+     * 是否已超过结束行
+     *
+     * @param row 行号
+     * @return 超过结束行返回 true
+     */
+    boolean isAfterLastRow(int row) {
+        return lastRow > 0 && row > lastRow;
+    }
+
+    /**
+     * 当前单元格是否输出原始值
+     *
+     * @return 当前单元格为原始值列中的数值单元格时返回 true
+     */
+    boolean isRawValue() {
+        return rawCell;
+    }
+
+    /**
+     * 当前单元格的样式是否为日期格式, 仅对原始值单元格有效
+     *
+     * @return 日期格式返回 true
+     */
+    boolean isDateFormatted() {
+        return dateFormatted;
+    }
+
+    /**
+     * 是否需要解析该单元格
+     *
+     * @param cellIndex 单元格的索引
+     * @param row       单元格的行号
+     * @return 不需要解析时返回 false
+     */
+    boolean isWanted(int cellIndex, int row) {
+        return row >= firstRow && (columns == null || columns.get(cellIndex));
+    }
+
+    /**
+     * 开始一个单元格
+     *
+     * @param cellIndex    单元格的索引
+     * @param cellType     单元格类型, 即 t 属性
+     * @param cellStyleStr 单元格样式, 即 s 属性
+     */
+    void startCell(int cellIndex, String cellType, String cellStyleStr) {
+        startCell(cellIndex, cellType, cellStyleStr != null ? Integer.parseInt(cellStyleStr) : -1);
+    }
+
+    /**
+     * 开始一个单元格
+     *
+     * @param cellIndex  单元格的索引
+     * @param cellType   单元格类型, 即 t 属性
+     * @param styleIndex 单元格样式索引, 即 s 属性, 没有样式时为 -1
+     */
+    void startCell(int cellIndex, String cellType, int styleIndex) {
+        formatIndex = -1;
+        formatString = null;
+        dateFormatted = false;
+        nextDataType = XSSFDataType.NUMBER;
+        if ("b".equals(cellType)) {
+            nextDataType = XSSFDataType.BOOL;
+        } else if ("e".equals(cellType)) {
+            nextDataType = XSSFDataType.ERROR;
+        } else if ("inlineStr".equals(cellType)) {
+            nextDataType = XSSFDataType.INLINESTR;
+        } else if ("s".equals(cellType)) {
+            nextDataType = XSSFDataType.SSTINDEX;
+        } else if ("str".equals(cellType)) {
+            nextDataType = XSSFDataType.FORMULA;
+        } else if (styleFormats.contains(styleIndex)) {
+            formatIndex = styleFormats.getFormatIndex(styleIndex);
+            formatString = styleFormats.getFormatString(styleIndex);
+        }
+        rawCell = nextDataType == XSSFDataType.NUMBER && rawColumns != null && rawColumns.get(cellIndex);
+        if (rawCell && formatString != null) {
+            dateFormatted = styleFormats.isDateFormat(styleIndex);
+        }
+    }
+
+    /**
+     * 当前单元格是否为共享字符串单元格
+     *
+     * @return t="s" 时返回 true
+     */
+    boolean isSharedStringIndex() {
+        return nextDataType == XSSFDataType.SSTINDEX;
+    }
+
+    /**
+     * 解码共享字符串单元格的值
+     *
+     * @param index 共享字符串索引
+     * @return 返回单元格的字符串值
+     */
+    String decodeSharedString(int index) {
+        if (sstCacheKeys == null) {
+            sstCacheKeys = new int[SST_CACHE_SIZE];
+            sstCacheValues = new String[SST_CACHE_SIZE];
+        }
+        int slot = index & (SST_CACHE_SIZE - 1);
+        String value = sstCacheValues[slot];
+        if (value == null || sstCacheKeys[slot] != index) {
+            value = decodeEscapes(sharedStrings.getEntryAt(index));
+            if (value != null) {
+                checkCellLength(value.length());
+            }
+            sstCacheKeys[slot] = index;
+            sstCacheValues[slot] = value;
+        }
+        return value;
+    }
+
+    /**
+     * 解码当前单元格的值
+     *
+     * @param rawValue 单元格 v 或 is 元素的原始文本
+     * @return 返回单元格的字符串值
+     */
+    String decode(String rawValue) {
+        switch (nextDataType) {
+            case BOOL:
+            case FORMULA:
+                checkCellLength(rawValue.length());
+                return rawValue;
+            case ERROR:
+                return "\"ERROR:" + rawValue + '"';
+            case INLINESTR:
+                checkCellLength(rawValue.length());
+                return decodeEscapes(rawValue);
+            case SSTINDEX:
+                try {
+                    return decodeSharedString(Integer.parseInt(rawValue));
+                } catch (NumberFormatException e) {
+                    throw new ExcelCastException(e);
+                }
+            case NUMBER:
+                if (formatString != null && !rawCell) {
+                    return formatter.formatRawCellContents(Double.parseDouble(rawValue), formatIndex, formatString);
+                } else {
+                    return rawValue;
+                }
+            default:
+                throw new ReadExcelException("Undefined type: " + nextDataType);
+        }
+    }
+
+    /**
+     * 解码 OOXML 的 _xHHHH_ 字符转义, 与 XSSFRichTextString 的处理一致, 没有转义时原样返回
+     *
+     * @param value 文本值
+     * @return 返回解码后的文本
+     */
+    static String decodeEscapes(String value) {
+        if (value == null) {
+            return null;
+        }
+        int idx = value.indexOf("_x");
+        if (idx < 0) {
+            return value;
+        }
+        StringBuilder builder = null;
+        int start = 0;
+        int length = value.length();
+        for (; idx >= 0 && idx + 7 <= length; idx = value.indexOf("_x", idx + 1)) {
+            if (value.charAt(idx + 6) != '_') {
+                continue;
+            }
+            int code = 0;
+            int i = idx + 2;
+            for (; i < idx + 6; i++) {
+                char c = value.charAt(i);
+                int digit = c < 128 ? Character.digit(c, 16) : -1;
+                if (digit < 0) {
+                    break;
+                }
+                code = (code << 4) + digit;
+            }
+            if (i < idx + 6) {
+                continue;
+            }
+            if (builder == null) {
+                builder = new StringBuilder(length);
+            }
+            builder.append(value, start, idx).append((char) code);
+            start = idx + 7;
+            idx += 6;
+        }
+        if (builder == null) {
+            return value;
+        }
+        return builder.append(value, start, length).toString();
+    }
+
+    /**
+     * 开始一行, 没有 r 属性时行号为上一行加1
+     *
+     * @param rowNum 行元素 r 属性的行号, 没有时为 -1
+     */
+    void startRow(int rowNum) {
+        currentRow = rowNum > 0 ? rowNum : currentRow + 1;
+        currentColumn = -1;
+    }
+
+    /**
+     * 定位下一个单元格, 没有 r 属性时列为上一个单元格的下一列
+     *
+     * @param column 单元格 r 属性的列索引, 没有时为 -1
+     * @param rowNum 单元格 r 属性的行号, 没有时为 -1
+     */
+    void nextCell(int column, int rowNum) {
+        currentColumn = column >= 0 ? column : currentColumn + 1;
+        if (rowNum > 0) {
+            currentRow = rowNum;
+        }
+    }
+
+    /**
+     * 定位下一个单元格, 一次遍历解析 r 属性的列和行, 不创建子字符串
+     *
+     * @param cellRef 单元格 r 属性, 如 AA12, 没有时为 null
+     * @throws ReadExcelException 单元格引用不是字母列加数字行的形式时抛出
+     */
+    void nextCell(String cellRef) {
+        if (cellRef == null) {
+            nextCell(-1, -1);
+            return;
+        }
+        int column = -1;
+        int length = cellRef.length();
+        int i = 0;
+        for (; i < length; i++) {
+            char c = cellRef.charAt(i);
+            if (c < 'A' || c > 'Z') {
+                break;
+            }
+            if (column >= MAX_COLUMN) {
+                throw invalidReference(cellRef);
+            }
+            column = (column + 1) * 26 + c - 'A';
+        }
+        if (column < 0) {
+            throw invalidReference(cellRef);
+        }
+        nextCell(column, parseRowNum(cellRef, i));
+    }
+
+    /**
+     * 解析行元素的 r 属性
+     *
+     * @param rowRef 行元素 r 属性, 没有时为 null
+     * @return 返回行号, 没有时返回 -1
+     * @throws ReadExcelException 行号不是正整数时抛出
+     */
+    static int parseRowRef(String rowRef) {
+        if (rowRef == null || rowRef.isEmpty()) {
+            return -1;
+        }
+        return parseRowNum(rowRef, 0);
+    }
+
+    // 从 start 处解析到末尾的行号, 须为不超过9位的正整数
+    private static int parseRowNum(String ref, int start) {
+        int length = ref.length();
+        if (start == length || length - start > MAX_ROW_DIGITS) {
+            throw invalidReference(ref);
+        }
+        int rowNum = 0;
+        for (int i = start; i < length; i++) {
+            int digit = ref.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                throw invalidReference(ref);
+            }
+            rowNum = rowNum * 10 + digit;
+        }
+        if (rowNum == 0) {
+            throw invalidReference(ref);
+        }
+        return rowNum;
+    }
+
+    static ReadExcelException invalidReference(String ref) {
+        return new ReadExcelException("Invalid cell reference: " + ref);
+    }
+
+    /**
+     * 获取当前单元格的列索引
+     *
+     * @return 返回列索引, 从0开始
+     */
+    int getColumn() {
+        return currentColumn;
+    }
+
+    /**
+     * 获取当前单元格的行号
+     *
+     * @return 返回行号, 从1开始
+     */
+    int getRow() {
+        return currentRow;
+    }
+
+    /**
+     * 单元格名称, 如 AA12, 仅在需要时创建
+     *
+     * @param column 列索引, 从0开始
+     * @param row    行号, 从1开始
+     * @return 返回单元格名称
+     */
+    static String cellName(int column, int row) {
+        return CellReference.convertNumToColString(column) + row;
+    }
+
+}
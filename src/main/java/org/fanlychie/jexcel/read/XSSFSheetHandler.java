@@ -1,144 +1,198 @@
 package org.fanlychie.jexcel.read;
 
-import org.apache.poi.ss.usermodel.BuiltinFormats;
-import org.apache.poi.ss.usermodel.DataFormatter;
 import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
 import org.apache.poi.xssf.model.StylesTable;
-import org.apache.poi.xssf.usermodel.XSSFCellStyle;
-import org.apache.poi.xssf.usermodel.XSSFRichTextString;
-import org.fanlychie.jexcel.exception.ExcelCastException;
-import org.fanlychie.jexcel.exception.ReadExcelException;
 import org.xml.sax.Attributes;
 import org.xml.sax.SAXException;
 import org.xml.sax.helpers.DefaultHandler;
 
+import java.util.BitSet;
+
 /**
  * XSSF Sheet 处理器
  * Created by fanzyun on 2017/8/13.
  */
 public abstract class XSSFSheetHandler extends DefaultHandler {
 
-    private StylesTable stylesTable;
+    private XSSFCellDecoder cellDecoder;
 
-    private ReadOnlySharedStringsTable sharedStringsTable;
+    private boolean nextIsRow;
 
-    private XSSFDataType nextDataType;
+    private String currCellValue;
 
-    private short formatIndex;
+    private boolean skipCell;
 
-    private String formatString;
+    private boolean valueIsOpen;
 
-    private boolean nextIsRow;
+    // is => inline str, 只取其中 t 元素的文本
+    private boolean inlineIsOpen;
 
-    private int currCellIndex;
+    private boolean textIsOpen;
 
-    private String currCellName;
-
-    private String currCellValue;
-
-    private DataFormatter formatter = new DataFormatter();
+    // is 中的 rPh 元素, 注音文本不计入单元格的值
+    private boolean phoneticIsOpen;
 
     private StringBuilder cellValueBuilder = new StringBuilder();
 
-    enum XSSFDataType {BOOL, ERROR, FORMULA, INLINESTR, SSTINDEX, NUMBER}
-
     public XSSFSheetHandler(StylesTable stylesTable, ReadOnlySharedStringsTable sharedStringsTable) {
-        this.stylesTable = stylesTable;
-        this.sharedStringsTable = sharedStringsTable;
+        this(stylesTable, new HeapSharedStrings(sharedStringsTable));
+    }
+
+    public XSSFSheetHandler(StylesTable stylesTable, SharedStrings sharedStrings) {
+        this(new StyleFormats(stylesTable), sharedStrings);
+    }
+
+    XSSFSheetHandler(StyleFormats styleFormats, SharedStrings sharedStrings) {
+        this.cellDecoder = new XSSFCellDecoder(styleFormats, sharedStrings);
     }
 
     @Override
     public void startElement(String uri, String localName, String qName, Attributes attributes) throws SAXException {
-        // v, is => inline str
-        if ("v".equals(qName) || "is".equals(qName)) {
+        // v => value
+        if ("v".equals(qName)) {
+            cellValueBuilder.setLength(0);
+            valueIsOpen = !skipCell;
+        }
+        // t => text of inline str
+        else if ("t".equals(qName)) {
+            textIsOpen = inlineIsOpen && !phoneticIsOpen;
+        }
+        // is => inline str
+        else if ("is".equals(qName)) {
             cellValueBuilder.setLength(0);
+            inlineIsOpen = !skipCell;
+        }
+        // rPh => phonetic run
+        else if ("rPh".equals(qName)) {
+            phoneticIsOpen = true;
         }
         // c => cell
         else if ("c".equals(qName)) {
-            // r => name
-            currCellName = attributes.getValue("r");
-            currCellIndex = parseCellIndex(currCellName);
-            // t => type
-            String cellType = attributes.getValue("t");
-            // s => style
-            String cellStyleStr = attributes.getValue("s");
-            formatIndex = -1;
-            formatString = null;
-            nextDataType = XSSFDataType.NUMBER;
-            if ("b".equals(cellType)) {
-                nextDataType = XSSFDataType.BOOL;
-            } else if ("e".equals(cellType)) {
-                nextDataType = XSSFDataType.ERROR;
-            } else if ("inlineStr".equals(cellType)) {
-                nextDataType = XSSFDataType.INLINESTR;
-            } else if ("s".equals(cellType)) {
-                nextDataType = XSSFDataType.SSTINDEX;
-            } else if ("str".equals(cellType)) {
-                nextDataType = XSSFDataType.FORMULA;
-            } else if (cellStyleStr != null) {
-                XSSFCellStyle style = stylesTable.getStyleAt(Integer.parseInt(cellStyleStr));
-                formatIndex = style.getDataFormat();
-                formatString = style.getDataFormatString();
-                if (formatString == null) {
-                    formatString = BuiltinFormats.getBuiltinFormat(formatIndex);
-                }
+            // r => name, 没有时按位置顺延
+            cellDecoder.nextCell(attributes.getValue("r"));
+            int row = cellDecoder.getRow();
+            if (cellDecoder.isAfterLastRow(row)) {
+                endDocument();
+                throw new StopParsingException();
+            }
+            cellDecoder.checkLimits();
+            // 不需要的行或列, 跳过取值、样式和共享字符串解析
+            skipCell = !cellDecoder.isWanted(cellDecoder.getColumn(), row);
+            if (!skipCell) {
+                // t => type, s => style
+                cellDecoder.startCell(cellDecoder.getColumn(), attributes.getValue("t"), attributes.getValue("s"));
             }
         }
+        // row => r
+        else if ("row".equals(qName)) {
+            cellDecoder.startRow(XSSFCellDecoder.parseRowRef(attributes.getValue("r")));
+            if (cellDecoder.isAfterLastRow(cellDecoder.getRow())) {
+                endDocument();
+                throw new StopParsingException();
+            }
+            cellDecoder.checkLimits();
+        }
     }
 
     @Override
     public void endElement(String uri, String localName, String qName) throws SAXException {
-        // v, is => contents of a cell
-        if ("v".equals(qName) || "is".equals(qName)) {
-            switch (nextDataType) {
-                case BOOL:
-                case FORMULA:
-                    currCellValue = cellValueBuilder.toString();
-                    break;
-                case ERROR:
-                    currCellValue = "\"ERROR:" + cellValueBuilder.toString() + '"';
-                    break;
-                case INLINESTR:
-                    XSSFRichTextString rtsi = new XSSFRichTextString(cellValueBuilder.toString());
-                    currCellValue = rtsi.toString();
-                    break;
-                case SSTINDEX:
-                    try {
-                        int n = Integer.parseInt(cellValueBuilder.toString());
-                        XSSFRichTextString rtss = new XSSFRichTextString(sharedStringsTable.getEntryAt(n));
-                        currCellValue = rtss.toString();
-                    } catch (NumberFormatException e) {
-                        throw new ExcelCastException(e);
-                    }
-                    break;
-                case NUMBER:
-                    String n = cellValueBuilder.toString();
-                    if (formatString != null) {
-                        currCellValue = formatter.formatRawCellContents(Double.parseDouble(n), formatIndex, formatString);
-                    } else {
-                        currCellValue = n;
-                    }
-                    break;
-                default:
-                    throw new ReadExcelException("Undefined type: " + nextDataType);
+        // v => contents of a cell
+        if ("v".equals(qName)) {
+            if (valueIsOpen) {
+                valueIsOpen = false;
+                postValue();
+            }
+        }
+        // is => contents of an inline str cell
+        else if ("is".equals(qName)) {
+            if (inlineIsOpen) {
+                inlineIsOpen = false;
+                textIsOpen = false;
+                postValue();
             }
-            postCellHandle(currCellIndex, currCellName, currCellValue, Integer.parseInt(currCellName.substring(1)), nextIsRow);
         }
         // row => new row
         else if ("row".equals(qName)) {
             nextIsRow = true;
         } else {
+            if ("t".equals(qName)) {
+                textIsOpen = false;
+            } else if ("rPh".equals(qName)) {
+                phoneticIsOpen = false;
+            }
             nextIsRow = false;
         }
     }
 
+    private void postValue() {
+        currCellValue = cellDecoder.decode(cellValueBuilder.toString());
+        if (cellDecoder.isRawValue()) {
+            postRawCellHandle(cellDecoder.getColumn(), cellDecoder.getRow(), currCellValue, cellDecoder.isDateFormatted(), nextIsRow);
+        } else {
+            postCellHandle(cellDecoder.getColumn(), cellDecoder.getRow(), currCellValue, nextIsRow);
+        }
+    }
+
     @Override
     public void characters(char[] ch, int start, int length) throws SAXException {
-        cellValueBuilder.append(ch, start, length);
+        if (valueIsOpen || textIsOpen) {
+            cellValueBuilder.append(ch, start, length);
+            cellDecoder.checkCellLength(cellValueBuilder.length());
+        }
+    }
+
+    /**
+     * 设置需要解析的列, 其余列的单元格在 c 元素开始时即被跳过
+     *
+     * @param columns 需要解析的列索引集合, 为 null 时解析所有的列
+     */
+    public void setColumns(BitSet columns) {
+        cellDecoder.setColumns(columns);
     }
 
     /**
-     * 单元格处理
+     * 设置直接输出原始值的列, 这些列的数值单元格不经过 DataFormatter 格式化, 通过
+     * {@link #postRawCellHandle(int, int, String, boolean, boolean)} 回调
+     *
+     * @param rawColumns 输出原始值的列索引集合, 为 null 时所有的列都输出格式化后的值
+     */
+    public void setRawColumns(BitSet rawColumns) {
+        cellDecoder.setRawColumns(rawColumns);
+    }
+
+    /**
+     * 设置解析的行范围, 起始行之前的单元格不解码, 超过结束行时回调 {@link #endDocument()} 并抛出 {@link StopParsingException} 停止解析
+     *
+     * @param firstRow 起始行号, 从1开始
+     * @param lastRow  结束行号, 从1开始, 小于1时解析到最后一行
+     */
+    public void setRowRange(int firstRow, int lastRow) {
+        cellDecoder.setRowRange(firstRow, lastRow);
+    }
+
+    /**
+     * 设置读取限制, 行号、列索引及单元格文本的长度在解析过程中逐步检查, 超过时抛出 {@link org.fanlychie.jexcel.exception.ReadLimitException}
+     *
+     * @param readLimits 读取限制, 为 null 时不限制
+     */
+    public void setReadLimits(ReadLimits readLimits) {
+        cellDecoder.setReadLimits(readLimits);
+    }
+
+    /**
+     * 单元格处理, 列索引和行号以基本类型传递, 默认转交 {@link #postCellHandle(int, String, String, int, boolean)}
+     *
+     * @param column 单元格的列索引, 从0开始
+     * @param row    单元格的行号, 从1开始
+     * @param value  单元格的字符串值
+     * @param newRow 是否是新的一行
+     */
+    public void postCellHandle(int column, int row, String value, boolean newRow) {
+        postCellHandle(column, XSSFCellDecoder.cellName(column, row), value, row, newRow);
+    }
+
+    /**
+     * 单元格处理, 附带单元格名称, 覆盖 {@link #postCellHandle(int, int, String, boolean)} 后不再回调
      *
      * @param index  单元格的索引
      * @param name   单元格的名称
@@ -146,30 +200,35 @@ public abstract class XSSFSheetHandler extends DefaultHandler {
      * @param row    单元格的行号
      * @param newRow 是否是新的一行
      */
-    public abstract void postCellHandle(int index, String name, String value, int row, boolean newRow);
+    public void postCellHandle(int index, String name, String value, int row, boolean newRow) {
+
+    }
 
     /**
-     * 解析单元格的索引值
+     * 原始值单元格处理, 用于 {@link #setRawColumns(BitSet)} 指定的列中的数值单元格, 值未经 DataFormatter 格式化.
+     * 默认按普通单元格处理
      *
-     * @param cellName 单元格名称
-     * @return 返回单元格的索引值
+     * @param column        单元格的列索引, 从0开始
+     * @param row           单元格的行号, 从1开始
+     * @param rawValue      单元格 v 元素的原始数值
+     * @param dateFormatted 单元格样式是否为日期格式
+     * @param newRow        是否是新的一行
      */
-    private int parseCellIndex(String cellName) {
-        int index = -1;
-        String cellNameLetter = null;
-        int length = cellName.length();
-        for (int i = 0; i < length; ++i) {
-            if (Character.isDigit(cellName.charAt(i))) {
-                cellNameLetter = cellName.substring(0, i);
-                break;
-            }
-        }
-        length = cellNameLetter.length();
-        for (int i = 0; i < length; ++i) {
-            int c = cellNameLetter.charAt(i);
-            index = (index + 1) * 26 + c - 'A';
+    public void postRawCellHandle(int column, int row, String rawValue, boolean dateFormatted, boolean newRow) {
+        postCellHandle(column, row, rawValue, newRow);
+    }
+
+    /**
+     * 超过结束行时抛出, 用于停止 SAX 解析
+     */
+    public static class StopParsingException extends SAXException {
+
+        private static final long serialVersionUID = 1L;
+
+        public StopParsingException() {
+            super("Stop parsing after the last row");
         }
-        return index;
+
     }
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,283 @@
+package org.fanlychie.jexcel.read;
+
+import org.apache.poi.xssf.model.StylesTable;
+
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.BitSet;
+
+/**
+ * XSSF Sheet 拉取式读取器, 每次调用 {@link #nextRow()} 只向前解析一行, 由调用方控制解析进度
+ */
+public abstract class XSSFSheetReader implements SheetRowReader {
+
+    private InputStream sheetInputStream;
+
+    private XMLStreamReader streamReader;
+
+    private XSSFCellDecoder cellDecoder;
+
+    private boolean nextIsRow;
+
+    private boolean endOfDocument;
+
+    private boolean skipCell;
+
+    private boolean valueIsOpen;
+
+    // is => inline str, 只取其中 t 元素的文本
+    private boolean inlineIsOpen;
+
+    private boolean textIsOpen;
+
+    // is 中的 rPh 元素, 注音文本不计入单元格的值
+    private boolean phoneticIsOpen;
+
+    private StringBuilder cellValueBuilder = new StringBuilder();
+
+    public XSSFSheetReader(StylesTable stylesTable, SharedStrings sharedStrings,
+                           InputStream sheetInputStream) throws XMLStreamException {
+        this(new StyleFormats(stylesTable), sharedStrings, sheetInputStream);
+    }
+
+    XSSFSheetReader(StyleFormats styleFormats, SharedStrings sharedStrings,
+                    InputStream sheetInputStream) throws XMLStreamException {
+        this.cellDecoder = new XSSFCellDecoder(styleFormats, sharedStrings);
+        this.sheetInputStream = sheetInputStream;
+        this.streamReader = ParserPool.inputFactory().createXMLStreamReader(sheetInputStream);
+    }
+
+    /**
+     * 向前解析一行, 该行的单元格依次回调 {@link #postCellHandle(int, int, String, boolean)}
+     *
+     * @return 若已到达工作表末尾则返回 false
+     * @throws XMLStreamException
+     */
+    @Override
+    public boolean nextRow() throws XMLStreamException {
+        if (endOfDocument) {
+            return false;
+        }
+        while (streamReader.hasNext()) {
+            switch (streamReader.next()) {
+                case XMLStreamConstants.START_ELEMENT:
+                    if (!startElement(streamReader.getLocalName())) {
+                        endOfDocument = true;
+                        endDocument();
+                        return false;
+                    }
+                    break;
+                case XMLStreamConstants.CHARACTERS:
+                case XMLStreamConstants.CDATA:
+                    if (valueIsOpen || textIsOpen) {
+                        cellValueBuilder.append(streamReader.getTextCharacters(),
+                                streamReader.getTextStart(), streamReader.getTextLength());
+                        cellDecoder.checkCellLength(cellValueBuilder.length());
+                    }
+                    break;
+                case XMLStreamConstants.END_ELEMENT:
+                    if (endElement(streamReader.getLocalName())) {
+                        return true;
+                    }
+                    break;
+                default:
+                    break;
+            }
+        }
+        endOfDocument = true;
+        endDocument();
+        return false;
+    }
+
+    /**
+     * 设置需要解析的列, 其余列的单元格在 c 元素开始时即被跳过
+     *
+     * @param columns 需要解析的列索引集合, 为 null 时解析所有的列
+     */
+    public void setColumns(BitSet columns) {
+        cellDecoder.setColumns(columns);
+    }
+
+    /**
+     * 设置直接输出原始值的列, 这些列的数值单元格不经过 DataFormatter 格式化, 通过
+     * {@link #postRawCellHandle(int, int, String, boolean, boolean)} 回调
+     *
+     * @param rawColumns 输出原始值的列索引集合, 为 null 时所有的列都输出格式化后的值
+     */
+    public void setRawColumns(BitSet rawColumns) {
+        cellDecoder.setRawColumns(rawColumns);
+    }
+
+    /**
+     * 关闭读取器
+     */
+    @Override
+    public void close() {
+        endOfDocument = true;
+        try {
+            streamReader.close();
+        } catch (XMLStreamException e) {
+        }
+        try {
+            sheetInputStream.close();
+        } catch (IOException e) {
+        }
+    }
+
+    /**
+     * 设置解析的行范围, 起始行之前的单元格不解码, 超过结束行时回调 {@link #endDocument()} 并停止解析
+     *
+     * @param firstRow 起始行号, 从1开始
+     * @param lastRow  结束行号, 从1开始, 小于1时解析到最后一行
+     */
+    public void setRowRange(int firstRow, int lastRow) {
+        cellDecoder.setRowRange(firstRow, lastRow);
+    }
+
+    /**
+     * 设置读取限制, 行号、列索引及单元格文本的长度在解析过程中逐步检查, 超过时抛出 {@link org.fanlychie.jexcel.exception.ReadLimitException}
+     *
+     * @param readLimits 读取限制, 为 null 时不限制
+     */
+    public void setReadLimits(ReadLimits readLimits) {
+        cellDecoder.setReadLimits(readLimits);
+    }
+
+    /**
+     * 单元格处理, 列索引和行号以基本类型传递, 默认转交 {@link #postCellHandle(int, String, String, int, boolean)}
+     *
+     * @param column 单元格的列索引, 从0开始
+     * @param row    单元格的行号, 从1开始
+     * @param value  单元格的字符串值
+     * @param newRow 是否是新的一行
+     */
+    public void postCellHandle(int column, int row, String value, boolean newRow) {
+        postCellHandle(column, XSSFCellDecoder.cellName(column, row), value, row, newRow);
+    }
+
+    /**
+     * 单元格处理, 附带单元格名称, 覆盖 {@link #postCellHandle(int, int, String, boolean)} 后不再回调
+     *
+     * @param index  单元格的索引
+     * @param name   单元格的名称
+     * @param value  单元格的字符串值
+     * @param row    单元格的行号
+     * @param newRow 是否是新的一行
+     */
+    public void postCellHandle(int index, String name, String value, int row, boolean newRow) {
+
+    }
+
+    /**
+     * 原始值单元格处理, 用于 {@link #setRawColumns(BitSet)} 指定的列中的数值单元格, 值未经 DataFormatter 格式化.
+     * 默认按普通单元格处理
+     *
+     * @param column        单元格的列索引, 从0开始
+     * @param row           单元格的行号, 从1开始
+     * @param rawValue      单元格 v 元素的原始数值
+     * @param dateFormatted 单元格样式是否为日期格式
+     * @param newRow        是否是新的一行
+     */
+    public void postRawCellHandle(int column, int row, String rawValue, boolean dateFormatted, boolean newRow) {
+        postCellHandle(column, row, rawValue, newRow);
+    }
+
+    /**
+     * 工作表解析结束处理
+     */
+    public void endDocument() {
+
+    }
+
+    // 返回 false 表示已超过结束行
+    private boolean startElement(String localName) {
+        // v => value
+        if ("v".equals(localName)) {
+            cellValueBuilder.setLength(0);
+            valueIsOpen = !skipCell;
+        }
+        // t => text of inline str
+        else if ("t".equals(localName)) {
+            textIsOpen = inlineIsOpen && !phoneticIsOpen;
+        }
+        // is => inline str
+        else if ("is".equals(localName)) {
+            cellValueBuilder.setLength(0);
+            inlineIsOpen = !skipCell;
+        }
+        // rPh => phonetic run
+        else if ("rPh".equals(localName)) {
+            phoneticIsOpen = true;
+        }
+        // c => cell
+        else if ("c".equals(localName)) {
+            // r => name, 没有时按位置顺延
+            cellDecoder.nextCell(streamReader.getAttributeValue(null, "r"));
+            int row = cellDecoder.getRow();
+            if (cellDecoder.isAfterLastRow(row)) {
+                return false;
+            }
+            cellDecoder.checkLimits();
+            // 不需要的行或列, 跳过取值、样式和共享字符串解析
+            skipCell = !cellDecoder.isWanted(cellDecoder.getColumn(), row);
+            if (!skipCell) {
+                // t => type, s => style
+                cellDecoder.startCell(cellDecoder.getColumn(), streamReader.getAttributeValue(null, "t"), streamReader.getAttributeValue(null, "s"));
+            }
+        }
+        // row => r
+        else if ("row".equals(localName)) {
+            cellDecoder.startRow(XSSFCellDecoder.parseRowRef(streamReader.getAttributeValue(null, "r")));
+            if (cellDecoder.isAfterLastRow(cellDecoder.getRow())) {
+                return false;
+            }
+            cellDecoder.checkLimits();
+        }
+        return true;
+    }
+
+    // 返回是否一行结束
+    private boolean endElement(String localName) {
+        // v => contents of a cell
+        if ("v".equals(localName)) {
+            if (valueIsOpen) {
+                valueIsOpen = false;
+                postValue();
+            }
+        }
+        // is => contents of an inline str cell
+        else if ("is".equals(localName)) {
+            if (inlineIsOpen) {
+                inlineIsOpen = false;
+                textIsOpen = false;
+                postValue();
+            }
+        }
+        // row => new row
+        else if ("row".equals(localName)) {
+            nextIsRow = true;
+            return true;
+        } else {
+            if ("t".equals(localName)) {
+                textIsOpen = false;
+            } else if ("rPh".equals(localName)) {
+                phoneticIsOpen = false;
+            }
+            nextIsRow = false;
+        }
+        return false;
+    }
+
+    private void postValue() {
+        String value = cellDecoder.decode(cellValueBuilder.toString());
+        if (cellDecoder.isRawValue()) {
+            postRawCellHandle(cellDecoder.getColumn(), cellDecoder.getRow(), value, cellDecoder.isDateFormatted(), nextIsRow);
+        } else {
+            postCellHandle(cellDecoder.getColumn(), cellDecoder.getRow(), value, nextIsRow);
+        }
+    }
+
+}
@@ -0,0 +1,623 @@
+package org.fanlychie.jexcel.read;
+
+import org.apache.poi.xssf.model.StylesTable;
+import org.fanlychie.jexcel.exception.ReadExcelException;
+import org.fanlychie.jexcel.exception.ReadLimitException;
+import org.fanlychie.jexcel.exception.ReadLimitException.Limit;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * XSSF Sheet 字节扫描器, 直接扫描工作表 XML 的字节, 只识别 row、c、v、is 及 is 中的 t 元素,
+ * 标签和属性不生成字符串, 单元格的值在复用的字节缓冲区中就地解码. 回调与 {@link XSSFSheetHandler} 一致
+ */
+public abstract class XSSFSheetScanner {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final byte[] AMP = "&amp;".getBytes(StandardCharsets.US_ASCII);
+
+    private XSSFCellDecoder cellDecoder;
+
+    private InputStream sheetInputStream;
+
+    private byte[] buffer = new byte[BUFFER_SIZE];
+
+    private int position;
+
+    private int limit;
+
+    /**
+     * 当前标签的字节, 不含尖括号
+     */
+    private byte[] tag = new byte[256];
+
+    private int tagLength;
+
+    /**
+     * 当前单元格值的字节
+     */
+    private byte[] text = new byte[256];
+
+    private int textLength;
+
+    private boolean nextIsRow;
+
+    // 单字母属性 r、t、s 的值在标签中的起止位置
+    private int rStart, rEnd, tStart, tEnd, sStart, sEnd;
+
+    private boolean skipCell;
+
+    // v 元素
+    private boolean valueIsOpen;
+
+    // is 元素
+    private boolean inlineIsOpen;
+
+    // is 中的 t 元素
+    private boolean textIsOpen;
+
+    // is 中的 rPh 元素, 注音文本不计入单元格的值
+    private boolean phoneticIsOpen;
+
+    // 已超过结束行
+    private boolean stopped;
+
+    /**
+     * 单元格值的最大字节数, 由单元格文本的最大长度估算, 小于1时不限制
+     */
+    private long maxTextBytes;
+
+    /**
+     * 单元格文本的最大长度, 小于1时不限制
+     */
+    private int maxCellLength;
+
+    public XSSFSheetScanner(StylesTable stylesTable, SharedStrings sharedStrings) {
+        this(new StyleFormats(stylesTable), sharedStrings);
+    }
+
+    XSSFSheetScanner(StyleFormats styleFormats, SharedStrings sharedStrings) {
+        this.cellDecoder = new XSSFCellDecoder(styleFormats, sharedStrings);
+    }
+
+    /**
+     * 扫描工作表, 输入流由调用方关闭
+     *
+     * @param sheetInputStream 工作表输入流
+     * @throws IOException
+     */
+    public void parse(InputStream sheetInputStream) throws IOException {
+        this.sheetInputStream = sheetInputStream;
+        this.position = 0;
+        this.limit = 0;
+        this.stopped = false;
+        while (!stopped && scanText(valueIsOpen || textIsOpen)) {
+            if (scanTag()) {
+                handleTag();
+            }
+        }
+        endDocument();
+    }
+
+    /**
+     * 设置需要解析的列, 其余列的单元格在 c 元素开始时即被跳过
+     *
+     * @param columns 需要解析的列索引集合, 为 null 时解析所有的列
+     */
+    public void setColumns(BitSet columns) {
+        cellDecoder.setColumns(columns);
+    }
+
+    /**
+     * 设置直接输出原始值的列, 这些列的数值单元格不经过 DataFormatter 格式化, 通过
+     * {@link #postRawCellHandle(int, int, String, boolean, boolean)} 回调
+     *
+     * @param rawColumns 输出原始值的列索引集合, 为 null 时所有的列都输出格式化后的值
+     */
+    public void setRawColumns(BitSet rawColumns) {
+        cellDecoder.setRawColumns(rawColumns);
+    }
+
+    /**
+     * 设置解析的行范围, 起始行之前的单元格不解码, 超过结束行时回调 {@link #endDocument()} 并停止解析
+     *
+     * @param firstRow 起始行号, 从1开始
+     * @param lastRow  结束行号, 从1开始, 小于1时解析到最后一行
+     */
+    public void setRowRange(int firstRow, int lastRow) {
+        cellDecoder.setRowRange(firstRow, lastRow);
+    }
+
+    /**
+     * 设置读取限制, 行号、列索引及单元格文本的长度在扫描过程中逐步检查, 超过时抛出 {@link org.fanlychie.jexcel.exception.ReadLimitException}
+     *
+     * @param readLimits 读取限制, 为 null 时不限制
+     */
+    public void setReadLimits(ReadLimits readLimits) {
+        cellDecoder.setReadLimits(readLimits);
+        maxCellLength = readLimits != null ? readLimits.getMaxCellLength() : 0;
+        maxTextBytes = maxCellLength > 0 ? maxCellLength * 10L : 0;
+    }
+
+    /**
+     * 单元格处理, 列索引和行号以基本类型传递, 默认转交 {@link #postCellHandle(int, String, String, int, boolean)}
+     *
+     * @param column 单元格的列索引, 从0开始
+     * @param row    单元格的行号, 从1开始
+     * @param value  单元格的字符串值
+     * @param newRow 是否是新的一行
+     */
+    public void postCellHandle(int column, int row, String value, boolean newRow) {
+        postCellHandle(column, XSSFCellDecoder.cellName(column, row), value, row, newRow);
+    }
+
+    /**
+     * 单元格处理, 附带单元格名称, 覆盖 {@link #postCellHandle(int, int, String, boolean)} 后不再回调
+     *
+     * @param index  单元格的索引
+     * @param name   单元格的名称
+     * @param value  单元格的字符串值
+     * @param row    单元格的行号
+     * @param newRow 是否是新的一行
+     */
+    public void postCellHandle(int index, String name, String value, int row, boolean newRow) {
+
+    }
+
+    /**
+     * 原始值单元格处理, 用于 {@link #setRawColumns(BitSet)} 指定的列中的数值单元格, 值未经 DataFormatter 格式化.
+     * 默认按普通单元格处理
+     *
+     * @param column        单元格的列索引, 从0开始
+     * @param row           单元格的行号, 从1开始
+     * @param rawValue      单元格 v 元素的原始数值
+     * @param dateFormatted 单元格样式是否为日期格式
+     * @param newRow        是否是新的一行
+     */
+    public void postRawCellHandle(int column, int row, String rawValue, boolean dateFormatted, boolean newRow) {
+        postCellHandle(column, row, rawValue, newRow);
+    }
+
+    /**
+     * 工作表解析结束处理
+     */
+    public void endDocument() {
+
+    }
+
+    // 读取下一段数据, 到达末尾返回 false
+    private boolean fill() throws IOException {
+        int n;
+        do {
+            n = sheetInputStream.read(buffer, 0, buffer.length);
+        } while (n == 0);
+        position = 0;
+        limit = n < 0 ? 0 : n;
+        return n > 0;
+    }
+
+    // 扫描到下一个 '<' 之后, 需要时收集途经的文本, 到达末尾返回 false
+    private boolean scanText(boolean collect) throws IOException {
+        while (true) {
+            if (position == limit && !fill()) {
+                return false;
+            }
+            byte[] buf = buffer;
+            int start = position;
+            int end = limit;
+            int i = start;
+            while (i < end && buf[i] != '<') {
+                ++i;
+            }
+            if (collect) {
+                appendText(buf, start, i - start);
+            }
+            if (i < end) {
+                position = i + 1;
+                return true;
+            }
+            position = i;
+        }
+    }
+
+    // 读取标签内容直到 '>', 注释和 CDATA 读取完整, 返回是否为元素标签
+    private boolean scanTag() throws IOException {
+        tagLength = 0;
+        byte quote = 0;
+        while (true) {
+            if (position == limit && !fill()) {
+                throw new ReadExcelException("Unexpected end of sheet xml");
+            }
+            byte b = buffer[position++];
+            if (quote != 0) {
+                if (b == quote) {
+                    quote = 0;
+                }
+            } else if (b == '"' || b == '\'') {
+                if (tagLength == 0 || tag[0] != '!') {
+                    quote = b;
+                }
+            } else if (b == '>' && isTagComplete()) {
+                break;
+            }
+            if (tagLength == tag.length) {
+                tag = Arrays.copyOf(tag, tagLength << 1);
+            }
+            tag[tagLength++] = b;
+        }
+        if (tagLength == 0) {
+            return false;
+        }
+        byte first = tag[0];
+        if (first == '?') {
+            return false;
+        }
+        if (first == '!') {
+            // <![CDATA[ ... ]]>
+            if (tagLength >= 10 && tag[1] == '[' && (valueIsOpen || textIsOpen)) {
+                for (int i = 8; i < tagLength - 2; i++) {
+                    if (tag[i] == '&') {
+                        appendText(AMP, 0, AMP.length);
+                    } else {
+                        appendText(tag, i, 1);
+                    }
+                }
+            }
+            return false;
+        }
+        return true;
+    }
+
+    // 注释须以 -- 结尾, CDATA 须以 ]] 结尾
+    private boolean isTagComplete() {
+        if (tagLength < 3 || tag[0] != '!') {
+            return true;
+        }
+        if (tag[1] == '-') {
+            return tagLength >= 5 && tag[tagLength - 1] == '-' && tag[tagLength - 2] == '-';
+        }
+        if (tag[1] == '[') {
+            return tagLength >= 10 && tag[tagLength - 1] == ']' && tag[tagLength - 2] == ']';
+        }
+        return true;
+    }
+
+    private void handleTag() {
+        boolean endTag = tag[0] == '/';
+        int nameStart = endTag ? 1 : 0;
+        int nameEnd = nameStart;
+        while (nameEnd < tagLength && !isSpace(tag[nameEnd]) && tag[nameEnd] != '/') {
+            if (tag[nameEnd] == ':') {
+                // 去掉命名空间前缀
+                nameStart = nameEnd + 1;
+            }
+            ++nameEnd;
+        }
+        int nameLength = nameEnd - nameStart;
+        if (nameLength == 0) {
+            return;
+        }
+        if (endTag) {
+            endElement(nameStart, nameLength);
+            return;
+        }
+        boolean emptyTag = tag[tagLength - 1] == '/';
+        startElement(nameStart, nameLength, nameEnd);
+        if (emptyTag) {
+            endElement(nameStart, nameLength);
+        }
+    }
+
+    private void startElement(int nameStart, int nameLength, int attrStart) {
+        byte c0 = tag[nameStart];
+        if (nameLength == 1) {
+            // v => value
+            if (c0 == 'v') {
+                textLength = 0;
+                valueIsOpen = !skipCell;
+            }
+            // c => cell
+            else if (c0 == 'c') {
+                startCell(attrStart);
+            }
+            // t => text of inline str
+            else if (c0 == 't') {
+                textIsOpen = inlineIsOpen && !phoneticIsOpen;
+            }
+        } else if (nameLength == 2 && c0 == 'i' && tag[nameStart + 1] == 's') {
+            // is => inline str
+            textLength = 0;
+            inlineIsOpen = !skipCell;
+        } else if (nameLength == 3 && c0 == 'r' && tag[nameStart + 1] == 'o' && tag[nameStart + 2] == 'w') {
+            // row => r
+            startRow(attrStart);
+        } else if (nameLength == 3 && c0 == 'r' && tag[nameStart + 1] == 'P' && tag[nameStart + 2] == 'h') {
+            phoneticIsOpen = true;
+        }
+    }
+
+    private void endElement(int nameStart, int nameLength) {
+        byte c0 = tag[nameStart];
+        if (nameLength == 1 && c0 == 'v') {
+            if (valueIsOpen) {
+                valueIsOpen = false;
+                postValue();
+            }
+        } else if (nameLength == 2 && c0 == 'i' && tag[nameStart + 1] == 's') {
+            if (inlineIsOpen) {
+                inlineIsOpen = false;
+                textIsOpen = false;
+                postValue();
+            }
+        } else if (nameLength == 3 && c0 == 'r' && tag[nameStart + 1] == 'o' && tag[nameStart + 2] == 'w') {
+            // row => new row
+            nextIsRow = true;
+        } else {
+            if (nameLength == 1 && c0 == 't') {
+                textIsOpen = false;
+            } else if (nameLength == 3 && c0 == 'r' && tag[nameStart + 1] == 'P') {
+                phoneticIsOpen = false;
+            }
+            nextIsRow = false;
+        }
+    }
+
+    // 查找标签中 r、t、s 属性值的位置, 没有的属性起始位置为 -1
+    private void scanAttributes(int i) {
+        rStart = tStart = sStart = -1;
+        while (i < tagLength) {
+            while (i < tagLength && (isSpace(tag[i]) || tag[i] == '/')) {
+                ++i;
+            }
+            int attrStart = i;
+            while (i < tagLength && tag[i] != '=' && !isSpace(tag[i])) {
+                ++i;
+            }
+            int attrEnd = i;
+            while (i < tagLength && tag[i] != '"' && tag[i] != '\'') {
+                ++i;
+            }
+            if (i >= tagLength) {
+                break;
+            }
+            byte quote = tag[i++];
+            int valueStart = i;
+            while (i < tagLength && tag[i] != quote) {
+                ++i;
+            }
+            int valueEnd = i++;
+            if (attrEnd - attrStart == 1) {
+                byte a = tag[attrStart];
+                if (a == 'r') {
+                    rStart = valueStart;
+                    rEnd = valueEnd;
+                } else if (a == 't') {
+                    tStart = valueStart;
+                    tEnd = valueEnd;
+                } else if (a == 's') {
+                    sStart = valueStart;
+                    sEnd = valueEnd;
+                }
+            }
+        }
+    }
+
+    // 解析 row 元素的 r 属性
+    private void startRow(int i) {
+        scanAttributes(i);
+        cellDecoder.startRow(rStart >= 0 && rEnd > rStart ? parseInt(tag, rStart, rEnd) : -1);
+        if (cellDecoder.isAfterLastRow(cellDecoder.getRow())) {
+            stopped = true;
+            return;
+        }
+        cellDecoder.checkLimits();
+    }
+
+    // 解析 c 元素的 r、t、s 属性
+    private void startCell(int i) {
+        scanAttributes(i);
+        // r => name, 字母部分为列, 数字部分为行, 没有时按位置顺延, 不是这种形式时抛出异常
+        int column = -1;
+        int row = -1;
+        if (rStart >= 0) {
+            int j = rStart;
+            for (; j < rEnd && tag[j] >= 'A' && tag[j] <= 'Z'; j++) {
+                if (column >= XSSFCellDecoder.MAX_COLUMN) {
+                    throw invalidReference(rStart, rEnd);
+                }
+                column = (column + 1) * 26 + tag[j] - 'A';
+            }
+            if (column < 0 || j == rEnd || rEnd - j > XSSFCellDecoder.MAX_ROW_DIGITS) {
+                throw invalidReference(rStart, rEnd);
+            }
+            row = 0;
+            for (; j < rEnd; j++) {
+                int digit = tag[j] - '0';
+                if (digit < 0 || digit > 9) {
+                    throw invalidReference(rStart, rEnd);
+                }
+                row = row * 10 + digit;
+            }
+            if (row == 0) {
+                throw invalidReference(rStart, rEnd);
+            }
+        }
+        cellDecoder.nextCell(column, row);
+        if (cellDecoder.isAfterLastRow(cellDecoder.getRow())) {
+            stopped = true;
+            skipCell = true;
+            return;
+        }
+        cellDecoder.checkLimits();
+        // 不需要的行或列, 跳过取值、样式和共享字符串解析
+        skipCell = !cellDecoder.isWanted(cellDecoder.getColumn(), cellDecoder.getRow());
+        if (!skipCell) {
+            // t => type, s => style
+            String cellType = tStart >= 0 ? toCellType(tStart, tEnd - tStart) : null;
+            int styleIndex = sStart >= 0 ? parseInt(tag, sStart, sEnd) : -1;
+            cellDecoder.startCell(cellDecoder.getColumn(), cellType, styleIndex);
+        }
+    }
+
+    // 单元格类型使用常量, 不为每个单元格创建字符串
+    private String toCellType(int start, int length) {
+        byte c0 = tag[start];
+        if (length == 1) {
+            if (c0 == 's') {
+                return "s";
+            }
+            if (c0 == 'b') {
+                return "b";
+            }
+            if (c0 == 'e') {
+                return "e";
+            }
+            if (c0 == 'n') {
+                return "n";
+            }
+        } else if (length == 3 && c0 == 's') {
+            return "str";
+        } else if (length == 9 && c0 == 'i') {
+            return "inlineStr";
+        }
+        return new String(tag, start, length, StandardCharsets.ISO_8859_1);
+    }
+
+    private void postValue() {
+        String value;
+        if (cellDecoder.isSharedStringIndex()) {
+            value = cellDecoder.decodeSharedString(parseInt(text, 0, textLength));
+        } else {
+            value = cellDecoder.decode(new String(text, 0, unescapeText(), StandardCharsets.UTF_8));
+        }
+        if (cellDecoder.isRawValue()) {
+            postRawCellHandle(cellDecoder.getColumn(), cellDecoder.getRow(), value, cellDecoder.isDateFormatted(), nextIsRow);
+        } else {
+            postCellHandle(cellDecoder.getColumn(), cellDecoder.getRow(), value, nextIsRow);
+        }
+    }
+
+    private void appendText(byte[] bytes, int offset, int length) {
+        // 按字节粗略检查, 一个字符编码或转义后不超过10个字节, 解码后再精确检查
+        if (maxTextBytes > 0 && textLength + length > maxTextBytes) {
+            long textBytes = (long) textLength + length;
+            throw new ReadLimitException(Limit.CELL_LENGTH, maxCellLength, textBytes,
+                    "read limit exceeded : CELL_LENGTH > " + maxCellLength + ", " + textBytes + " bytes before decoding");
+        }
+        if (textLength + length > text.length) {
+            text = Arrays.copyOf(text, Math.max(text.length << 1, textLength + length));
+        }
+        System.arraycopy(bytes, offset, text, textLength, length);
+        textLength += length;
+    }
+
+    // 就地解码 XML 实体, 返回解码后的长度
+    private int unescapeText() {
+        byte[] t = text;
+        int length = textLength;
+        int i = 0;
+        while (i < length && t[i] != '&') {
+            ++i;
+        }
+        int w = i;
+        while (i < length) {
+            byte b = t[i];
+            if (b != '&') {
+                t[w++] = b;
+                ++i;
+                continue;
+            }
+            int semi = i + 1;
+            while (semi < length && t[semi] != ';') {
+                ++semi;
+            }
+            if (semi >= length) {
+                t[w++] = b;
+                ++i;
+                continue;
+            }
+            int s = i + 1;
+            int n = semi - s;
+            if (n > 1 && t[s] == '#') {
+                int codePoint = t[s + 1] == 'x' || t[s + 1] == 'X'
+                        ? parseHex(t, s + 2, semi) : parseInt(t, s + 1, semi);
+                w = writeUtf8(t, w, codePoint);
+            } else if (n == 3 && t[s] == 'a' && t[s + 1] == 'm' && t[s + 2] == 'p') {
+                t[w++] = '&';
+            } else if (n == 2 && t[s] == 'l' && t[s + 1] == 't') {
+                t[w++] = '<';
+            } else if (n == 2 && t[s] == 'g' && t[s + 1] == 't') {
+                t[w++] = '>';
+            } else if (n == 4 && t[s] == 'q') {
+                t[w++] = '"';
+            } else if (n == 4 && t[s] == 'a') {
+                t[w++] = '\'';
+            } else {
+                throw new ReadExcelException("Undefined entity: " + new String(t, i, semi - i + 1, StandardCharsets.UTF_8));
+            }
+            i = semi + 1;
+        }
+        return w;
+    }
+
+    // 实体至少占4个字节, 写出的 UTF-8 字节不会超过实体本身的长度
+    private static int writeUtf8(byte[] t, int w, int codePoint) {
+        if (codePoint < 0x80) {
+            t[w++] = (byte) codePoint;
+        } else if (codePoint < 0x800) {
+            t[w++] = (byte) (0xC0 | (codePoint >> 6));
+            t[w++] = (byte) (0x80 | (codePoint & 0x3F));
+        } else if (codePoint < 0x10000) {
+            t[w++] = (byte) (0xE0 | (codePoint >> 12));
+            t[w++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+            t[w++] = (byte) (0x80 | (codePoint & 0x3F));
+        } else {
+            t[w++] = (byte) (0xF0 | (codePoint >> 18));
+            t[w++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+            t[w++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+            t[w++] = (byte) (0x80 | (codePoint & 0x3F));
+        }
+        return w;
+    }
+
+    private ReadExcelException invalidReference(int start, int end) {
+        return XSSFCellDecoder.invalidReference(new String(tag, start, end - start, StandardCharsets.ISO_8859_1));
+    }
+
+    private static int parseInt(byte[] bytes, int start, int end) {
+        if (start >= end) {
+            throw new ReadExcelException("Invalid number: " + new String(bytes, start, 0, StandardCharsets.ISO_8859_1));
+        }
+        int value = 0;
+        for (int i = start; i < end; i++) {
+            int digit = bytes[i] - '0';
+            if (digit < 0 || digit > 9) {
+                throw new ReadExcelException("Invalid number: " + new String(bytes, start, end - start, StandardCharsets.ISO_8859_1));
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    private static int parseHex(byte[] bytes, int start, int end) {
+        int value = 0;
+        for (int i = start; i < end; i++) {
+            int digit = Character.digit(bytes[i], 16);
+            if (digit < 0) {
+                throw new ReadExcelException("Invalid number: " + new String(bytes, start, end - start, StandardCharsets.ISO_8859_1));
+            }
+            value = (value << 4) + digit;
+        }
+        return value;
+    }
+
+    private static boolean isSpace(byte b) {
+        return b == ' ' || b == '\t' || b == '\n' || b == '\r';
+    }
+
+}
@@ -13,7 +13,6 @@ import org.fanlychie.jexcel.exception.ExcelCastException;
 import org.fanlychie.jexcel.write.model.ExcelSheet;
 import org.fanlychie.jexcel.write.model.SimpleCell;
 import org.fanlychie.jexcel.write.model.SimpleRow;
-import org.fanlychie.jreflect.BeanDescriptor;
 
 import javax.servlet.http.HttpServletResponse;
 import java.io.File;
@@ -381,10 +380,9 @@ public class WritableExcel {
         if (rowStyle.getHeight() != null) {
             row.setHeightInPoints(rowStyle.getHeight());
         }
-        BeanDescriptor beanDescriptor = new BeanDescriptor(obj);
         for (CellField cellField : cellFields) {
             SXSSFCell cell = row.createCell(cellField.getIndex());
-            Object value = beanDescriptor.getValueByName(cellField.getField());
+            Object value = cellField.getValue(obj);
             setCellValue(cell, value, cellField.getType());
             cell.setCellStyle(sxssfSheet.getColumnStyle(cellField.getIndex()));
         }
@@ -0,0 +1,108 @@
+package org.fanlychie.jexcel;
+
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.fanlychie.jexcel.read.ReadableExcel;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 导入执行器的测试
+ */
+public class ImportExecutorTest {
+
+    private static final int INFLATED = 64 * 1024 * 1024;
+
+    @Test
+    public void estimateReadsCentralDirectoryWithoutInflating() throws Exception {
+        byte[] bomb = zip("xl/sharedStrings.xml", INFLATED);
+        assertTrue(bomb.length < INFLATED / 100);
+        long estimate = ImportExecutor.estimateHeap(bomb);
+        // 所有部件解压后的大小加上共享字符串表的放大倍数
+        assertTrue(String.valueOf(estimate), estimate >= INFLATED * 3L);
+        Path path = Files.createTempFile("estimate", ".xlsx");
+        try {
+            Files.write(path, bomb);
+            assertTrue(ImportExecutor.estimateHeap(path) >= INFLATED * 2L);
+        } finally {
+            Files.delete(path);
+        }
+    }
+
+    @Test
+    public void estimateFallsBackOnTruncatedZip() throws Exception {
+        byte[] zip = zip("xl/worksheets/sheet1.xml", 1024);
+        byte[] truncated = Arrays.copyOf(zip, zip.length - 10);
+        assertTrue(ImportExecutor.estimateHeap(truncated) > truncated.length);
+    }
+
+    @Test
+    public void tasksQueueUntilBudgetIsReleased() throws Exception {
+        byte[] excel = workbook();
+        long cost = ImportExecutor.estimateHeap(excel);
+        ImportExecutor importExecutor = new ImportExecutor(cost);
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        try {
+            CompletableFuture<String> first = importExecutor.submit(excel, new ImportExecutor.ImportTask<String>() {
+                @Override
+                public String execute(ReadableExcel readableExcel) throws Exception {
+                    started.countDown();
+                    release.await();
+                    return "first";
+                }
+            });
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            CompletableFuture<String> second = importExecutor.submit(excel, new ImportExecutor.ImportTask<String>() {
+                @Override
+                public String execute(ReadableExcel readableExcel) {
+                    return "second";
+                }
+            });
+            assertEquals(1, importExecutor.getQueuedCount());
+            release.countDown();
+            assertEquals("first", first.get(5, TimeUnit.SECONDS));
+            assertEquals("second", second.get(5, TimeUnit.SECONDS));
+            assertEquals(cost, importExecutor.getAvailableHeap());
+        } finally {
+            importExecutor.shutdown();
+        }
+    }
+
+    private static byte[] workbook() throws IOException {
+        XSSFWorkbook workbook = new XSSFWorkbook();
+        workbook.createSheet("Sheet1").createRow(0).createCell(0).setCellValue("编号");
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        workbook.write(bytes);
+        workbook.close();
+        return bytes.toByteArray();
+    }
+
+    // 一个部件的 ZIP, 内容为重复的字节, 压缩率很高
+    private static byte[] zip(String entryName, int size) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ZipOutputStream out = new ZipOutputStream(bytes)) {
+            out.putNextEntry(new ZipEntry(entryName));
+            byte[] chunk = new byte[64 * 1024];
+            Arrays.fill(chunk, (byte) 'a');
+            for (int n = 0; n < size; n += chunk.length) {
+                out.write(chunk, 0, Math.min(chunk.length, size - n));
+            }
+            out.closeEntry();
+        }
+        return bytes.toByteArray();
+    }
+
+}
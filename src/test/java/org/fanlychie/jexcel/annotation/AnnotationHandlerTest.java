@@ -0,0 +1,96 @@
+package org.fanlychie.jexcel.annotation;
+
+import org.fanlychie.jexcel.exception.ExcelCastException;
+import org.junit.Test;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * 注解解析器的测试, final 字段与普通字段一样可以赋值
+ */
+public class AnnotationHandlerTest {
+
+    @Test
+    public void finalFieldsAreSettable() {
+        List<CellField> cellFields = AnnotationHandler.parseReadableClass(FinalBean.class);
+        FinalBean bean = new FinalBean();
+        cellFields.get(0).setInt(bean, 7);
+        cellFields.get(1).setValue(bean, "name");
+        cellFields.get(2).setDouble(bean, 1.5);
+        assertEquals(7, bean.id);
+        assertEquals("name", bean.name);
+        assertEquals(1.5, bean.amount, 0);
+        assertEquals(7, cellFields.get(0).getValue(bean));
+    }
+
+    @Test
+    public void fieldSetterFallbackAssignsFinalFields() throws Throwable {
+        // 赋值句柄不可用时的后备方式
+        Method fieldSetter = AnnotationHandler.class.getDeclaredMethod("fieldSetter", Field.class);
+        fieldSetter.setAccessible(true);
+        FinalBean bean = new FinalBean();
+        Field id = FinalBean.class.getDeclaredField("id");
+        Field name = FinalBean.class.getDeclaredField("name");
+        id.setAccessible(true);
+        name.setAccessible(true);
+        ((MethodHandle) fieldSetter.invoke(null, id)).invoke(bean, 9);
+        ((MethodHandle) fieldSetter.invoke(null, name)).invoke(bean, (Object) "fallback");
+        assertEquals(9, bean.id);
+        assertEquals("fallback", bean.name);
+    }
+
+    @Test
+    public void staticFinalFieldIsRejectedBeforeReading() {
+        List<CellField> cellFields = AnnotationHandler.parseClass(StaticFinalBean.class);
+        // 静态字段仍可取值用于输出
+        assertEquals("1", cellFields.get(0).getValue(new StaticFinalBean()));
+        assertFalse(cellFields.get(0).isSettable());
+        assertTrue(cellFields.get(1).isSettable());
+        try {
+            AnnotationHandler.parseReadableClass(StaticFinalBean.class);
+            fail("static final field was accepted");
+        } catch (ExcelCastException e) {
+            assertTrue(e.getCause() instanceof IllegalAccessException);
+            assertTrue(e.getCause().getMessage(), e.getCause().getMessage().contains("VERSION"));
+        }
+    }
+
+    public static class FinalBean {
+
+        // 在构造器中赋值, 避免成为编译期常量
+        @Cell(index = 0, name = "编号")
+        private final int id;
+
+        @Cell(index = 1, name = "姓名")
+        private final String name;
+
+        @Cell(index = 2, name = "金额")
+        private final double amount;
+
+        public FinalBean() {
+            this.id = 0;
+            this.name = null;
+            this.amount = 0;
+        }
+
+    }
+
+    public static class StaticFinalBean {
+
+        @Cell(index = 0, name = "版本")
+        private static final String VERSION = "1";
+
+        @Cell(index = 1, name = "姓名")
+        private String name;
+
+    }
+
+}
@@ -0,0 +1,105 @@
+package org.fanlychie.jexcel.read;
+
+import org.fanlychie.jexcel.ExcelHelper;
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * 批量解析的测试
+ */
+public class BatchParseTest {
+
+    private static final int ROWS = 1000;
+
+    @ClassRule
+    public static TemporaryFolder folder = new TemporaryFolder();
+
+    private static File file;
+
+    @BeforeClass
+    public static void createWorkbook() throws Exception {
+        file = TestWorkbooks.xlsx(folder.newFile("batch.xlsx"), TestWorkbooks.persons(ROWS));
+    }
+
+    @Test
+    public void batchesKeepRowOrder() {
+        assertBatches(false);
+    }
+
+    @Test
+    public void asyncBatchesKeepRowOrder() {
+        assertBatches(true);
+    }
+
+    @Test
+    public void consumerFailurePropagates() {
+        for (boolean async : new boolean[]{false, true}) {
+            try {
+                ExcelHelper.getReadableExcel(file).parseSheetInBatches(1, Person.class, 100, new BatchConsumer<Person>() {
+                    @Override
+                    public void accept(List<Person> rows) {
+                        throw new IllegalStateException("sink down");
+                    }
+                }, async);
+                fail("consumer failure was swallowed, async = " + async);
+            } catch (RuntimeException e) {
+                assertTrue(String.valueOf(e), causedBy(e, "sink down"));
+            }
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void nonPositiveBatchSizeIsRejected() {
+        ExcelHelper.getReadableExcel(file).parseSheetInBatches(1, Person.class, 0, new BatchConsumer<Person>() {
+            @Override
+            public void accept(List<Person> rows) {
+            }
+        });
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void nonPositiveWorkersAreRejected() {
+        ExcelHelper.getReadableExcel(file).parseSheetConcurrently(1, Person.class, 0);
+    }
+
+    @Test
+    public void excessiveWorkersAreCapped() {
+        List<Person> persons = ExcelHelper.getReadableExcel(file).parseSheetConcurrently(1, Person.class, 500);
+        assertEquals(TestWorkbooks.persons(ROWS), persons);
+    }
+
+    private void assertBatches(boolean async) {
+        final List<Person> rows = new ArrayList<>();
+        final List<Integer> sizes = new ArrayList<>();
+        ExcelHelper.getReadableExcel(file).parseSheetInBatches(1, Person.class, 128, new BatchConsumer<Person>() {
+            @Override
+            public void accept(List<Person> batch) {
+                sizes.add(batch.size());
+                rows.addAll(batch);
+            }
+        }, async);
+        assertEquals(TestWorkbooks.persons(ROWS), rows);
+        assertEquals(ROWS / 128 + 1, sizes.size());
+        assertEquals(Integer.valueOf(ROWS % 128), sizes.get(sizes.size() - 1));
+    }
+
+    private static boolean causedBy(Throwable e, String message) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (message.equals(t.getMessage())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+}
@@ -0,0 +1,186 @@
+package org.fanlychie.jexcel.read;
+
+import org.fanlychie.jexcel.ExcelHelper;
+import org.fanlychie.jexcel.exception.ReadLimitException;
+import org.fanlychie.jexcel.exception.ReadLimitException.Limit;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+/**
+ * CSV 读取器的测试, 每个用例同时以整块读取和逐字节读取的输入流运行, 覆盖缓冲区边界
+ */
+public class CSVSheetReaderTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void quotedFieldsKeepDelimitersNewlinesAndEscapedQuotes() throws Exception {
+        assertRows("a,\"b,c\",\"d\"\"e\",\"f\r\ng\"\n\"\"\"\",\"\",h\n",
+                row("0=a", "1=b,c", "2=d\"e", "3=f\r\ng"),
+                row("0=\"", "2=h"));
+    }
+
+    @Test
+    public void charactersAfterClosingQuoteAreIgnored() throws Exception {
+        assertRows("\"a\"x,b\n", row("0=a", "1=b"));
+    }
+
+    @Test
+    public void lineEndingsAreEquivalent() throws Exception {
+        List<List<String>> expected = Arrays.asList(row("0=1", "1=a"), row("0=2", "1=b"), row("0=3", "1=c"));
+        assertEquals(expected, read("1,a\r\n2,b\r\n3,c\r\n", StandardCharsets.UTF_8, 1 << 16, null));
+        assertEquals(expected, read("1,a\n2,b\n3,c\n", StandardCharsets.UTF_8, 1 << 16, null));
+        assertEquals(expected, read("1,a\r2,b\r3,c", StandardCharsets.UTF_8, 1 << 16, null));
+        assertEquals(expected, read("1,a\r\n2,b\n3,c\r", StandardCharsets.UTF_8, 1, null));
+    }
+
+    @Test
+    public void blankLinesAreEmptyRows() throws Exception {
+        List<List<String>> rows = read("a\r\n\r\nb\r\n", StandardCharsets.UTF_8, 1, null);
+        assertEquals(Arrays.asList(row("0=a"), row(), row("0=b")), rows);
+    }
+
+    @Test
+    public void byteOrderMarkIsSkipped() throws Exception {
+        assertRows("\uFEFF编号,姓名\r\n1,\uFEFF\r\n", row("0=编号", "1=姓名"), row("0=1", "1=\uFEFF"));
+    }
+
+    @Test
+    public void crlfAcrossBufferBoundary() throws Exception {
+        // 第一行恰好填满 64K 的字符缓冲区, \r 与 \n 分属两次补充
+        StringBuilder first = new StringBuilder();
+        for (int i = 0; i < 64 * 1024 - 1; i++) {
+            first.append('x');
+        }
+        List<List<String>> rows = read(first + "\r\nnext\r\n", StandardCharsets.UTF_8, 1 << 16, null);
+        assertEquals(Arrays.asList(row("0=" + first), row("0=next")), rows);
+    }
+
+    @Test
+    public void oversizedFieldsGrowTheBuffer() throws Exception {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 200000; i++) {
+            text.append((char) ('a' + i % 26));
+        }
+        assertRows("1,\"" + text + "\"\n2," + text + ",end\n",
+                row("0=1", "1=" + text),
+                row("0=2", "1=" + text, "2=end"));
+    }
+
+    @Test
+    public void oversizedFieldsAreCheckedAgainstCellLength() throws Exception {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 200000; i++) {
+            text.append('x');
+        }
+        for (String content : new String[]{"1," + text + "\n", "1,\"" + text + "\"\n"}) {
+            for (int chunk : new int[]{1 << 16, 1}) {
+                try {
+                    read(content, StandardCharsets.UTF_8, chunk, new ReadLimits().setMaxCellLength(1000));
+                    fail("oversized field was accepted");
+                } catch (ReadLimitException e) {
+                    assertEquals(Limit.CELL_LENGTH, e.getLimit());
+                }
+            }
+        }
+    }
+
+    @Test
+    public void multiByteCharactersAcrossReads() throws Exception {
+        assertEquals(Collections.singletonList(row("0=名字", "1=金额")), read("名字,金额", StandardCharsets.UTF_8, 1, null));
+        assertEquals(Collections.singletonList(row("0=名字", "1=金额")), read("名字\t金额", Charset.forName("GBK"), 1, null, '\t'));
+    }
+
+    @Test(timeout = 10000)
+    public void surrogatePairsAtBufferEnd() throws Exception {
+        // 字段从缓冲区开头开始, 解码到只剩一个字符的空间时下一个码点是代理对
+        StringBuilder text = new StringBuilder("a");
+        for (int i = 0; i < 40000; i++) {
+            text.append("\uD83D\uDE00");
+        }
+        assertRows(text + "\nx,y\n", row("0=" + text), row("0=x", "1=y"));
+    }
+
+    @Test
+    public void csvFileBindsThroughReadableExcel() throws Exception {
+        File file = folder.newFile("persons.csv");
+        Files.write(file.toPath(), "\uFEFF编号,姓名,金额\r\n1,\"名字,1\",1.5\r\n2,\"名字\"\"2\",3.0\r\n".getBytes(StandardCharsets.UTF_8));
+        List<Person> persons = ExcelHelper.getReadableCsv(file.toPath(), StandardCharsets.UTF_8).parseSheetAt(1, Person.class);
+        assertEquals(Arrays.asList(new Person(1, "名字,1", 1.5), new Person(2, "名字\"2", 3.0)), persons);
+    }
+
+    // 整块读取和逐字节读取的结果都须与期望一致
+    private static void assertRows(String content, List<?>... expected) throws IOException {
+        assertEquals(Arrays.asList(expected), read(content, StandardCharsets.UTF_8, 1 << 16, null));
+        assertEquals(Arrays.asList(expected), read(content, StandardCharsets.UTF_8, 1, null));
+    }
+
+    private static List<List<String>> read(String content, Charset charset, int chunk, ReadLimits readLimits) throws IOException {
+        return read(content, charset, chunk, readLimits, ',');
+    }
+
+    // 每行的字段以 "列索引=值" 表示, 空字段不回调
+    private static List<List<String>> read(String content, Charset charset, int chunk, ReadLimits readLimits, char delimiter) throws IOException {
+        final List<List<String>> rows = new ArrayList<>();
+        CSVSheetReader reader = new CSVSheetReader(new ChunkedInputStream(content.getBytes(charset), chunk), charset, delimiter) {
+            @Override
+            public void postCellHandle(int column, int row, String value, boolean newRow) {
+                rows.get(row - 1).add(column + "=" + value);
+            }
+        };
+        reader.setReadLimits(readLimits);
+        try {
+            while (true) {
+                rows.add(new ArrayList<String>());
+                if (!reader.nextRow()) {
+                    break;
+                }
+            }
+        } finally {
+            reader.close();
+        }
+        rows.remove(rows.size() - 1);
+        return rows;
+    }
+
+    private static List<String> row(String... cells) {
+        return Arrays.asList(cells);
+    }
+
+    /**
+     * 每次最多返回 chunk 个字节的输入流
+     */
+    private static class ChunkedInputStream extends FilterInputStream {
+
+        private final int chunk;
+
+        ChunkedInputStream(byte[] bytes, int chunk) {
+            super(new ByteArrayInputStream(bytes));
+            this.chunk = chunk;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            return super.read(b, off, Math.min(len, chunk));
+        }
+
+    }
+
+}
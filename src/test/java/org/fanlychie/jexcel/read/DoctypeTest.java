@@ -0,0 +1,83 @@
+package org.fanlychie.jexcel.read;
+
+import org.fanlychie.jexcel.ExcelHelper;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * 带 DOCTYPE 声明及外部实体的工作表不得读出外部文件的内容
+ */
+public class DoctypeTest {
+
+    private static final String SECRET = "top-secret-value";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void saxRejectsDoctype() throws Exception {
+        File file = doctypeSheet();
+        try {
+            ExcelHelper.getReadableExcel(file).setStartRow(1).setReadEngine(ReadEngine.SAX).parseSheetAt(1, Person.class);
+            fail("DOCTYPE was accepted");
+        } catch (RuntimeException e) {
+            assertTrue(String.valueOf(rootCause(e)), String.valueOf(rootCause(e).getMessage()).contains("DOCTYPE"));
+        }
+    }
+
+    @Test
+    public void externalEntityIsNeverResolved() throws Exception {
+        File file = doctypeSheet();
+        for (ReadEngine readEngine : ReadEngine.values()) {
+            try {
+                List<Person> persons = ExcelHelper.getReadableExcel(file).setStartRow(1).setReadEngine(readEngine).parseSheetAt(1, Person.class);
+                assertFalse(readEngine + " " + persons, persons.toString().contains(SECRET));
+            } catch (RuntimeException e) {
+                // 拒绝解析也是安全的
+            }
+        }
+        try {
+            List<Person> persons = new ArrayList<>();
+            try (RowIterator<Person> iterator = ExcelHelper.getReadableExcel(file).setStartRow(1).iterateSheetAt(1, Person.class)) {
+                while (iterator.hasNext()) {
+                    persons.add(iterator.next());
+                }
+            }
+            assertFalse("STAX " + persons, persons.toString().contains(SECRET));
+        } catch (RuntimeException e) {
+            // 拒绝解析也是安全的
+        }
+    }
+
+    // 工作表声明一个指向本地文件的外部实体, 并在内联字符串中引用它
+    private File doctypeSheet() throws Exception {
+        File secret = folder.newFile("secret.txt");
+        Files.write(secret.toPath(), SECRET.getBytes(StandardCharsets.UTF_8));
+        String sheet = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>"
+                + "<!DOCTYPE worksheet [<!ENTITY xxe SYSTEM \"" + secret.toURI() + "\">]>"
+                + "<worksheet xmlns=\"http://schemas.openxmlformats.org/spreadsheetml/2006/main\"><sheetData>"
+                + "<row r=\"1\"><c r=\"A1\"><v>1</v></c><c r=\"B1\" t=\"inlineStr\"><is><t>&xxe;</t></is></c></row>"
+                + "</sheetData></worksheet>";
+        File source = TestWorkbooks.xlsx(folder.newFile("source.xlsx"), TestWorkbooks.persons(1));
+        return TestWorkbooks.replaceEntry(source, folder.newFile("doctype.xlsx"), "xl/worksheets/sheet1.xml", sheet);
+    }
+
+    private static Throwable rootCause(Throwable e) {
+        while (e.getCause() != null && e.getCause() != e) {
+            e = e.getCause();
+        }
+        return e;
+    }
+
+}
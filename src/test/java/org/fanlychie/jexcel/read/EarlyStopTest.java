@@ -0,0 +1,76 @@
+package org.fanlychie.jexcel.read;
+
+import org.fanlychie.jexcel.ExcelHelper;
+import org.fanlychie.jexcel.exception.ReadExcelException;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * 行范围与提前结束解析的测试, 工作表最后一行是无效数据, 只有提前结束解析才不会失败
+ */
+public class EarlyStopTest {
+
+    private static final int ROWS = 2000;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void previewStopsBeforeInvalidTailOnEveryEngine() throws Exception {
+        List<Person> persons = TestWorkbooks.persons(ROWS);
+        File file = TestWorkbooks.xlsxWithInvalidTail(folder.newFile("preview.xlsx"), persons);
+        for (ReadEngine readEngine : ReadEngine.values()) {
+            List<Person> preview = ExcelHelper.getReadableExcel(file).setReadEngine(readEngine).setEndRow(51).parseSheetAt(1, Person.class);
+            assertEquals(readEngine.name(), persons.subList(0, 50), preview);
+        }
+    }
+
+    @Test
+    public void iteratorStopsBeforeInvalidTail() throws Exception {
+        List<Person> persons = TestWorkbooks.persons(ROWS);
+        File file = TestWorkbooks.xlsxWithInvalidTail(folder.newFile("iterate.xlsx"), persons);
+        List<Person> preview = new ArrayList<>();
+        try (RowIterator<Person> iterator = ExcelHelper.getReadableExcel(file).setEndRow(11).iterateSheetAt(1, Person.class)) {
+            while (iterator.hasNext()) {
+                preview.add(iterator.next());
+            }
+        }
+        assertEquals(persons.subList(0, 10), preview);
+    }
+
+    @Test
+    public void previewStopsBeforeInvalidTailOnXls() throws Exception {
+        List<Person> persons = TestWorkbooks.persons(ROWS);
+        File file = TestWorkbooks.xlsWithInvalidTail(folder.newFile("preview.xls"), persons);
+        List<Person> preview = ExcelHelper.getReadableExcel(file).setEndRow(51).parseSheetAt(1, Person.class);
+        assertEquals(persons.subList(0, 50), preview);
+    }
+
+    @Test
+    public void sheetWindowSkipsLeadingRows() throws Exception {
+        List<Person> persons = TestWorkbooks.persons(ROWS);
+        File file = TestWorkbooks.xlsxWithInvalidTail(folder.newFile("window.xlsx"), persons);
+        ReadableSheet readableSheet = new ReadableSheet();
+        readableSheet.setIndex(0);
+        readableSheet.setFirstRowNum(101);
+        readableSheet.setLastRowNum(110);
+        for (ReadEngine readEngine : ReadEngine.values()) {
+            List<Person> window = ExcelHelper.getReadableExcel(file).setReadEngine(readEngine).parseSheet(readableSheet, Person.class);
+            assertEquals(readEngine.name(), persons.subList(99, 109), window);
+        }
+    }
+
+    @Test(expected = ReadExcelException.class)
+    public void fullParseReachesInvalidTail() throws Exception {
+        File file = TestWorkbooks.xlsxWithInvalidTail(folder.newFile("full.xlsx"), TestWorkbooks.persons(10));
+        ExcelHelper.getReadableExcel(file).parseSheetAt(1, Person.class);
+    }
+
+}
@@ -0,0 +1,102 @@
+package org.fanlychie.jexcel.read;
+
+import org.fanlychie.jexcel.ExcelHelper;
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * SAX、字节扫描及 StAX 拉取三种解析方式在同一个文件上的结果必须一致, 包括共享字符串和内联字符串中的注音文本(rPh)
+ */
+public class EngineEquivalenceTest {
+
+    private static final String MAIN = "http://schemas.openxmlformats.org/spreadsheetml/2006/main";
+
+    private static final String SHARED_STRINGS = "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>"
+            + "<sst xmlns=\"" + MAIN + "\" count=\"5\" uniqueCount=\"5\">"
+            + "<si><t>编号</t></si><si><t>姓名</t></si><si><t>金额</t></si>"
+            + "<si><t>東京</t><rPh sb=\"0\" eb=\"2\"><t>トウキョウ</t></rPh><phoneticPr fontId=\"1\"/></si>"
+            + "<si><r><t>大</t></r><r><rPr><b/></rPr><t>阪</t></r><rPh sb=\"0\" eb=\"2\"><t>オオサカ</t></rPh></si>"
+            + "</sst>";
+
+    private static final String SHEET = "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>"
+            + "<worksheet xmlns=\"" + MAIN + "\"><sheetData>"
+            + "<row r=\"1\"><c r=\"A1\" t=\"s\"><v>0</v></c><c r=\"B1\" t=\"s\"><v>1</v></c><c r=\"C1\" t=\"s\"><v>2</v></c></row>"
+            + "<row r=\"2\"><c r=\"A2\"><v>1</v></c><c r=\"B2\" t=\"s\"><v>3</v></c><c r=\"C2\"><v>1.5</v></c></row>"
+            + "<row r=\"3\"><c r=\"A3\"><v>2</v></c><c r=\"B3\" t=\"s\"><v>4</v></c><c r=\"C3\"><v>3</v></c></row>"
+            + "<row r=\"4\"><c r=\"A4\"><v>3</v></c><c r=\"B4\" t=\"inlineStr\"><is><t>名古屋</t>"
+            + "<rPh sb=\"0\" eb=\"3\"><t>ナゴヤ</t></rPh></is></c><c r=\"C4\"><v>4.5</v></c></row>"
+            + "<row r=\"5\"><c r=\"A5\"><v>4</v></c><c r=\"B5\" t=\"inlineStr\"><is><r><t xml:space=\"preserve\">a &amp; </t></r>"
+            + "<r><rPr><i/></rPr><t>b</t></r></is></c><c r=\"C5\"><v>6</v></c></row>"
+            + "<row r=\"6\"><c r=\"A6\" t=\"str\"><f>1+4</f><v>5</v></c><c r=\"B6\" t=\"inlineStr\"><is><t><![CDATA[<x>]]></t></is></c>"
+            + "<c r=\"C6\"><v>7.5</v></c></row>"
+            + "</sheetData></worksheet>";
+
+    @ClassRule
+    public static TemporaryFolder folder = new TemporaryFolder();
+
+    private static File phonetic;
+
+    private static File generated;
+
+    @BeforeClass
+    public static void createWorkbooks() throws Exception {
+        File source = TestWorkbooks.xlsx(folder.newFile("source.xlsx"), TestWorkbooks.persons(1));
+        File strings = TestWorkbooks.replaceEntry(source, folder.newFile("strings.xlsx"), "xl/sharedStrings.xml", SHARED_STRINGS);
+        phonetic = TestWorkbooks.replaceEntry(strings, folder.newFile("phonetic.xlsx"), "xl/worksheets/sheet1.xml", SHEET);
+        generated = TestWorkbooks.xlsx(folder.newFile("generated.xlsx"), TestWorkbooks.persons(3000));
+    }
+
+    @Test
+    public void phoneticRunsAreDroppedByEveryEngine() throws Exception {
+        List<Person> expected = Arrays.asList(new Person(1, "東京", 1.5), new Person(2, "大阪", 3),
+                new Person(3, "名古屋", 4.5), new Person(4, "a & b", 6), new Person(5, "<x>", 7.5));
+        assertEngines(phonetic, expected);
+    }
+
+    @Test
+    public void generatedSheetIsReadIdentically() throws Exception {
+        assertEngines(generated, TestWorkbooks.persons(3000));
+    }
+
+    // 每种解析方式分别以堆内、磁盘及带读取限制的共享字符串表, 格式化值和原始值读取
+    private static void assertEngines(File file, List<Person> expected) throws Exception {
+        for (boolean mapped : new boolean[]{false, true}) {
+            for (boolean limited : new boolean[]{false, true}) {
+                for (boolean raw : new boolean[]{false, true}) {
+                    String mode = file.getName() + " mapped=" + mapped + " limited=" + limited + " raw=" + raw;
+                    for (ReadEngine readEngine : ReadEngine.values()) {
+                        try (ReadableExcel readableExcel = open(file, mapped, limited, raw)) {
+                            assertEquals(mode + " " + readEngine, expected, readableExcel.setReadEngine(readEngine).parseSheetAt(1, Person.class));
+                        }
+                    }
+                    List<Person> iterated = new ArrayList<>();
+                    try (ReadableExcel readableExcel = open(file, mapped, limited, raw);
+                         RowIterator<Person> iterator = readableExcel.iterateSheetAt(1, Person.class)) {
+                        while (iterator.hasNext()) {
+                            iterated.add(iterator.next());
+                        }
+                    }
+                    assertEquals(mode + " STAX", expected, iterated);
+                }
+            }
+        }
+    }
+
+    private static ReadableExcel open(File file, boolean mapped, boolean limited, boolean raw) {
+        ReadableExcel readableExcel = ExcelHelper.getReadableExcel(file).setMappedSharedStrings(mapped).setRawNumericValues(raw);
+        if (limited) {
+            readableExcel.setReadLimits(new ReadLimits().setMaxCellLength(1000).setMaxSharedStrings(10000).setMaxRows(100000));
+        }
+        return readableExcel;
+    }
+
+}
@@ -0,0 +1,199 @@
+package org.fanlychie.jexcel.read;
+
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.fanlychie.jexcel.ExcelHelper;
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+/**
+ * 解析所有工作表的测试
+ */
+public class ParseAllSheetTest {
+
+    @ClassRule
+    public static TemporaryFolder folder = new TemporaryFolder();
+
+    private static List<List<Person>> sheets;
+
+    private static File xlsx;
+
+    private static File xls;
+
+    @BeforeClass
+    public static void createWorkbooks() throws Exception {
+        sheets = Arrays.asList(TestWorkbooks.persons(1, 500), TestWorkbooks.persons(10001, 300), TestWorkbooks.persons(20001, 700));
+        xlsx = TestWorkbooks.xlsxSheets(folder.newFile("all.xlsx"), sheets);
+        xls = TestWorkbooks.xlsSheets(folder.newFile("all.xls"), sheets);
+    }
+
+    @Test
+    public void parallelResultKeepsSheetOrder() {
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            for (File file : new File[]{xlsx, xls}) {
+                assertEquals(file.getName(), concat(sheets), ExcelHelper.getReadableExcel(file).parseAllSheet(Person.class, executor));
+                assertEquals(file.getName(), concat(sheets), ExcelHelper.getReadableExcel(file).parseAllSheet(Person.class));
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void sheetHandlerReceivesEachSheet() {
+        for (File file : new File[]{xlsx, xls}) {
+            final Map<Integer, List<Person>> result = new ConcurrentHashMap<>();
+            ExcelHelper.getReadableExcel(file).parseAllSheet(Person.class, null, new SheetHandler<Person>() {
+                @Override
+                public void handle(int sheetIndex, List<Person> rows) {
+                    result.put(sheetIndex, rows);
+                }
+            });
+            assertEquals(file.getName(), sheets.size(), result.size());
+            for (int i = 0; i < sheets.size(); i++) {
+                assertEquals(file.getName(), sheets.get(i), result.get(i + 1));
+            }
+        }
+    }
+
+    @Test
+    public void endRowAppliesToEverySheet() {
+        for (File file : new File[]{xlsx, xls}) {
+            List<Person> expected = new ArrayList<>();
+            for (List<Person> sheet : sheets) {
+                expected.addAll(sheet.subList(0, 20));
+            }
+            assertEquals(file.getName(), expected, ExcelHelper.getReadableExcel(file).setEndRow(21).parseAllSheet(Person.class, (Executor) null));
+        }
+    }
+
+    @Test
+    public void handlerFailurePropagates() {
+        for (File file : new File[]{xlsx, xls}) {
+            try {
+                ExcelHelper.getReadableExcel(file).parseAllSheet(Person.class, null, new SheetHandler<Person>() {
+                    @Override
+                    public void handle(int sheetIndex, List<Person> rows) {
+                        if (sheetIndex == 2) {
+                            throw new IllegalStateException("sheet 2 down");
+                        }
+                    }
+                });
+                fail("handler failure was swallowed");
+            } catch (IllegalStateException e) {
+                assertEquals("sheet 2 down", e.getMessage());
+            }
+        }
+    }
+
+    @Test
+    public void rowHandlerStreamsEverySheetInOrder() {
+        List<Integer> expectedRowNums = null;
+        for (File file : new File[]{xlsx, xls}) {
+            final List<Person> rows = new ArrayList<>();
+            final List<Integer> rowNums = new ArrayList<>();
+            ExcelHelper.getReadableExcel(file).parseAllSheet(Person.class, new RowHandler<Person>() {
+                @Override
+                public void handle(Person item, int rowNum) {
+                    rows.add(item);
+                    rowNums.add(rowNum);
+                }
+            });
+            assertEquals(file.getName(), concat(sheets), rows);
+            if (expectedRowNums == null) {
+                expectedRowNums = rowNums;
+            }
+            // 行号按各自工作表计数
+            assertEquals(file.getName(), expectedRowNums, rowNums);
+            assertEquals(file.getName(), Integer.valueOf(2), rowNums.get(sheets.get(0).size()));
+        }
+    }
+
+    @Test
+    public void listOverloadAppliesRowRangeToEverySheet() {
+        List<Person> expected = new ArrayList<>();
+        for (List<Person> sheet : sheets) {
+            expected.addAll(sheet.subList(9, 20));
+        }
+        for (File file : new File[]{xlsx, xls}) {
+            assertEquals(file.getName(), expected, ExcelHelper.getReadableExcel(file).setStartRow(11).setEndRow(21).parseAllSheet(Person.class));
+        }
+    }
+
+    @Test
+    public void headerIsBoundPerSheet() throws Exception {
+        // 第2个工作表的列顺序与第1个不同
+        File xlsx = shuffledHeaders(new XSSFWorkbook(), folder.newFile("headers.xlsx"));
+        File xls = shuffledHeaders(new HSSFWorkbook(), folder.newFile("headers.xls"));
+        for (File file : new File[]{xlsx, xls}) {
+            assertEquals(file.getName(), concat(sheets.subList(0, 2)), ExcelHelper.getReadableExcel(file).setHeaderRow(1).parseAllSheet(Person.class));
+        }
+        assertEquals(concat(sheets.subList(0, 2)), ExcelHelper.getReadableExcel(xls).setHeaderRow(1).parseAllSheet(Person.class, (Executor) null));
+    }
+
+    // 写出前两个工作表, 第2个工作表按 金额、编号、姓名 的顺序排列
+    private static File shuffledHeaders(Workbook workbook, File file) throws Exception {
+        String[] titles = {"编号", "姓名", "金额"};
+        int[][] orders = {{0, 1, 2}, {2, 0, 1}};
+        for (int s = 0; s < orders.length; s++) {
+            Sheet sheet = workbook.createSheet("Sheet" + (s + 1));
+            Row header = sheet.createRow(0);
+            for (int c = 0; c < 3; c++) {
+                header.createCell(c).setCellValue(titles[orders[s][c]]);
+            }
+            List<Person> persons = sheets.get(s);
+            for (int i = 0; i < persons.size(); i++) {
+                Person person = persons.get(i);
+                Row row = sheet.createRow(i + 1);
+                for (int c = 0; c < 3; c++) {
+                    switch (orders[s][c]) {
+                        case 0:
+                            row.createCell(c).setCellValue(person.getId());
+                            break;
+                        case 1:
+                            row.createCell(c).setCellValue(person.getName());
+                            break;
+                        default:
+                            row.createCell(c).setCellValue(person.getAmount());
+                            break;
+                    }
+                }
+            }
+        }
+        try (OutputStream out = new FileOutputStream(file)) {
+            workbook.write(out);
+        }
+        workbook.close();
+        return file;
+    }
+
+    private static List<Person> concat(List<List<Person>> sheets) {
+        List<Person> list = new ArrayList<>();
+        for (List<Person> sheet : sheets) {
+            list.addAll(sheet);
+        }
+        return list;
+    }
+
+}
@@ -0,0 +1,59 @@
+package org.fanlychie.jexcel.read;
+
+import org.fanlychie.jexcel.annotation.Cell;
+
+/**
+ * 测试用的行对象
+ */
+public class Person {
+
+    @Cell(index = 0, name = "编号")
+    private int id;
+
+    @Cell(index = 1, name = "姓名")
+    private String name;
+
+    @Cell(index = 2, name = "金额")
+    private double amount;
+
+    public Person() {
+    }
+
+    public Person(int id, String name, double amount) {
+        this.id = id;
+        this.name = name;
+        this.amount = amount;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public double getAmount() {
+        return amount;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof Person)) {
+            return false;
+        }
+        Person that = (Person) o;
+        return id == that.id && amount == that.amount && (name == null ? that.name == null : name.equals(that.name));
+    }
+
+    @Override
+    public int hashCode() {
+        return id;
+    }
+
+    @Override
+    public String toString() {
+        return id + "," + name + "," + amount;
+    }
+
+}
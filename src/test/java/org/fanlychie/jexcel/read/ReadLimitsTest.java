@@ -0,0 +1,230 @@
+package org.fanlychie.jexcel.read;
+
+import org.apache.poi.hssf.record.SSTRecord;
+import org.apache.poi.poifs.filesystem.NPOIFSFileSystem;
+import org.apache.poi.util.IOUtils;
+import org.fanlychie.jexcel.ExcelHelper;
+import org.fanlychie.jexcel.exception.ReadLimitException;
+import org.fanlychie.jexcel.exception.ReadLimitException.Limit;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * 读取限制的测试
+ */
+public class ReadLimitsTest {
+
+    private static final String MAIN = "http://schemas.openxmlformats.org/spreadsheetml/2006/main";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void scannerReportsByteCountOfOversizedText() throws Exception {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 20000; i++) {
+            text.append('x');
+        }
+        File file = sheet("<row r=\"1\"><c r=\"A1\"><v>1</v></c><c r=\"B1\" t=\"inlineStr\"><is><t>" + text + "</t></is></c></row>");
+        try {
+            ExcelHelper.getReadableExcel(file).setStartRow(1).setReadEngine(ReadEngine.SCANNER)
+                    .setReadLimits(new ReadLimits().setMaxCellLength(1000)).parseSheetAt(1, Person.class);
+            fail("oversized text was accepted");
+        } catch (ReadLimitException e) {
+            assertEquals(Limit.CELL_LENGTH, e.getLimit());
+            assertEquals(1000, e.getMaxValue());
+            assertTrue(String.valueOf(e.getActualValue()), e.getActualValue() > 10000 && e.getActualValue() <= 20000);
+            assertTrue(e.getMessage(), e.getMessage().contains(e.getActualValue() + " bytes"));
+        }
+    }
+
+    @Test
+    public void xlsSharedStringCountIsCheckedBeforeRecordIsBuilt() throws Exception {
+        File source = TestWorkbooks.xls(folder.newFile("source.xls"), TestWorkbooks.persons(10));
+        // 声明的字符串数量远超实际数量, POI 构造 SST 记录时会读到记录流之外
+        File file = patchSharedStringCount(source, folder.newFile("sst.xls"), Integer.MAX_VALUE);
+        try {
+            ExcelHelper.getReadableExcel(file).setReadLimits(new ReadLimits().setMaxSharedStrings(100)).parseSheetAt(1, Person.class);
+            fail("shared string count was accepted");
+        } catch (ReadLimitException e) {
+            assertEquals(Limit.SHARED_STRINGS, e.getLimit());
+            assertEquals(Integer.MAX_VALUE, e.getActualValue());
+        }
+    }
+
+    @Test
+    public void workbookPartIsReadUnderPartLimit() throws Exception {
+        File file = TestWorkbooks.xlsx(folder.newFile("workbook.xlsx"), TestWorkbooks.persons(1));
+        // 打开时不读取 workbook.xml, 设置限制后首次获取工作表目录时才读取
+        ReadableExcel excel = ExcelHelper.getReadableExcel(file).setReadLimits(new ReadLimits().setMaxPartBytes(64));
+        try {
+            excel.getSheetCount();
+            fail("workbook part was read without limit");
+        } catch (ReadLimitException e) {
+            assertEquals(Limit.PART_BYTES, e.getLimit());
+        } finally {
+            excel.close();
+        }
+    }
+
+    @Test
+    public void stylesPartIsReadUnderPartLimit() throws Exception {
+        File source = TestWorkbooks.xlsx(folder.newFile("source.xlsx"), TestWorkbooks.persons(1));
+        String styles = TestWorkbooks.readEntry(source, "xl/styles.xml");
+        StringBuilder padding = new StringBuilder();
+        for (int i = 0; i < 100000; i++) {
+            padding.append('x');
+        }
+        int root = styles.indexOf("<numFmts") > 0 ? styles.indexOf("<numFmts") : styles.indexOf("<fonts");
+        File file = TestWorkbooks.replaceEntry(source, folder.newFile("styles.xlsx"), "xl/styles.xml",
+                styles.substring(0, root) + "<!--" + padding + "-->" + styles.substring(root));
+        try {
+            ExcelHelper.getReadableExcel(file).setStartRow(1)
+                    .setReadLimits(new ReadLimits().setMaxPartBytes(50000)).parseSheetAt(1, Person.class);
+            fail("styles part was read without limit");
+        } catch (ReadLimitException e) {
+            assertEquals(Limit.PART_BYTES, e.getLimit());
+            assertTrue(String.valueOf(e.getActualValue()), e.getActualValue() > 50000);
+        }
+    }
+
+    @Test
+    public void xlsSheetNamesAreReadWithoutSharedStrings() throws Exception {
+        File source = TestWorkbooks.xls(folder.newFile("source.xls"), TestWorkbooks.persons(10));
+        File file = patchSharedStringCount(source, folder.newFile("sst.xls"), Integer.MAX_VALUE);
+        // 工作表目录只读到 BoundSheet 记录为止, 不构造 SST 记录
+        ReadableExcel excel = ExcelHelper.getReadableExcel(file);
+        try {
+            assertEquals(1, excel.getSheetCount());
+            assertEquals("Sheet1", excel.getSheetNames().get(0));
+        } finally {
+            excel.close();
+        }
+    }
+
+    @Test
+    public void limitsApplyToEveryFormatAndEngine() throws Exception {
+        List<Person> persons = TestWorkbooks.persons(200);
+        File xlsx = TestWorkbooks.xlsx(folder.newFile("limits.xlsx"), persons);
+        File xls = TestWorkbooks.xls(folder.newFile("limits.xls"), persons);
+        File csv = csv(folder.newFile("limits.csv"), persons);
+        assertLimit(Limit.ROWS, 11, new ReadLimits().setMaxRows(10), xlsx, xls, csv);
+        assertLimit(Limit.COLUMNS, 3, new ReadLimits().setMaxColumns(2), xlsx, xls, csv);
+        // 名字为3个字符, 字节扫描引擎按 UTF-8 字节数计数
+        assertLimit(Limit.CELL_LENGTH, -1, new ReadLimits().setMaxCellLength(2), xlsx, xls, csv);
+        assertLimit(Limit.PART_BYTES, -1, new ReadLimits().setMaxPartBytes(2000), xlsx, xls, csv);
+        // 表头3个及名字7个, 共10个共享字符串, CSV 没有共享字符串
+        assertLimit(Limit.SHARED_STRINGS, 10, new ReadLimits().setMaxSharedStrings(5), xlsx, xls);
+        assertLimit(Limit.SHARED_STRING_CHARS, -1, new ReadLimits().setMaxSharedStringChars(10), xlsx, xls);
+    }
+
+    @Test
+    public void limitsAboveActualValuesAreAccepted() throws Exception {
+        List<Person> persons = TestWorkbooks.persons(200);
+        ReadLimits readLimits = new ReadLimits().setMaxRows(201).setMaxColumns(3).setMaxCellLength(10)
+                .setMaxPartBytes(1 << 20).setMaxSharedStrings(10).setMaxSharedStringChars(100);
+        File[] files = {
+                TestWorkbooks.xlsx(folder.newFile("accepted.xlsx"), persons),
+                TestWorkbooks.xls(folder.newFile("accepted.xls"), persons),
+                csv(folder.newFile("accepted.csv"), persons)
+        };
+        for (File file : files) {
+            for (ReadEngine readEngine : ReadEngine.values()) {
+                assertEquals(file.getName(), persons, open(file).setReadEngine(readEngine).setReadLimits(readLimits).parseSheetAt(1, Person.class));
+            }
+        }
+    }
+
+    // 每种格式及解析方式都须抛出给定限制的异常, actualValue 小于0时不检查实际值
+    private void assertLimit(Limit limit, long actualValue, ReadLimits readLimits, File... files) {
+        for (File file : files) {
+            for (ReadEngine readEngine : ReadEngine.values()) {
+                try {
+                    open(file).setReadEngine(readEngine).setReadLimits(readLimits).parseSheetAt(1, Person.class);
+                    fail(limit + " was not checked : " + file.getName() + " " + readEngine);
+                } catch (ReadLimitException e) {
+                    assertLimit(limit, actualValue, e, file.getName() + " " + readEngine);
+                }
+            }
+            try (RowIterator<Person> iterator = open(file).setReadLimits(readLimits).iterateSheetAt(1, Person.class)) {
+                while (iterator.hasNext()) {
+                    iterator.next();
+                }
+                fail(limit + " was not checked : " + file.getName() + " iterator");
+            } catch (ReadLimitException e) {
+                assertLimit(limit, actualValue, e, file.getName() + " iterator");
+            }
+        }
+    }
+
+    private static void assertLimit(Limit limit, long actualValue, ReadLimitException e, String message) {
+        assertEquals(message, limit, e.getLimit());
+        assertTrue(message, e.getActualValue() > e.getMaxValue());
+        if (actualValue >= 0) {
+            assertEquals(message, actualValue, e.getActualValue());
+        }
+    }
+
+    private static ReadableExcel open(File file) {
+        if (file.getName().endsWith(".csv")) {
+            return ExcelHelper.getReadableCsv(file.toPath(), StandardCharsets.UTF_8);
+        }
+        return ExcelHelper.getReadableExcel(file);
+    }
+
+    private static File csv(File file, List<Person> persons) throws IOException {
+        StringBuilder builder = new StringBuilder("编号,姓名,金额\r\n");
+        for (Person person : persons) {
+            builder.append(person.getId()).append(',').append(person.getName()).append(',').append(person.getAmount()).append("\r\n");
+        }
+        Files.write(file.toPath(), builder.toString().getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    // 修改 .xls 工作簿记录流中 SST 记录声明的字符串数量
+    private static File patchSharedStringCount(File source, File target, int count) throws Exception {
+        byte[] workbook;
+        try (NPOIFSFileSystem fileSystem = new NPOIFSFileSystem(source, true);
+             InputStream stream = fileSystem.createDocumentInputStream("Workbook")) {
+            workbook = IOUtils.toByteArray(stream);
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(workbook).order(ByteOrder.LITTLE_ENDIAN);
+        int position = 0;
+        while (buffer.getShort(position) != SSTRecord.sid) {
+            position += 4 + (buffer.getShort(position + 2) & 0xFFFF);
+        }
+        buffer.putInt(position + 4, count);
+        buffer.putInt(position + 8, count);
+        try (NPOIFSFileSystem fileSystem = new NPOIFSFileSystem();
+             OutputStream out = new FileOutputStream(target)) {
+            fileSystem.createDocument(new ByteArrayInputStream(workbook), "Workbook");
+            fileSystem.writeFilesystem(out);
+        }
+        return target;
+    }
+
+    // 以给定的 sheetData 内容替换工作表
+    private File sheet(String sheetData) throws Exception {
+        File source = TestWorkbooks.xlsx(folder.newFile("source.xlsx"), TestWorkbooks.persons(1));
+        return TestWorkbooks.replaceEntry(source, folder.newFile("sheet.xlsx"), "xl/worksheets/sheet1.xml",
+                "<?xml version=\"1.0\" encoding=\"UTF-8\"?><worksheet xmlns=\"" + MAIN + "\"><sheetData>" + sheetData + "</sheetData></worksheet>");
+    }
+
+}
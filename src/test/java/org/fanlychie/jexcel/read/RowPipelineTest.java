@@ -0,0 +1,123 @@
+package org.fanlychie.jexcel.read;
+
+import org.fanlychie.jexcel.annotation.AnnotationHandler;
+import org.fanlychie.jexcel.annotation.CellField;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * 行流水线的测试, 直接向流水线推送单元格, 不受可用处理器数量的限制
+ */
+public class RowPipelineTest {
+
+    private static final int ROWS = 5000;
+
+    private static final int WORKERS = 4;
+
+    @Test
+    public void rowsAreDeliveredInOrderAndOneAtATime() {
+        final List<Person> rows = new ArrayList<>();
+        final List<Integer> rowNums = new ArrayList<>();
+        final AtomicInteger active = new AtomicInteger();
+        final AtomicInteger overlaps = new AtomicInteger();
+        RowPipeline<Person> rowPipeline = newPipeline(new RowHandler<Person>() {
+            @Override
+            public void handle(Person item, int rowNum) {
+                if (active.incrementAndGet() > 1) {
+                    overlaps.incrementAndGet();
+                }
+                rows.add(item);
+                rowNums.add(rowNum);
+                active.decrementAndGet();
+            }
+        });
+        try {
+            push(rowPipeline, TestWorkbooks.persons(ROWS), -1);
+            rowPipeline.flush();
+        } finally {
+            rowPipeline.shutdown();
+        }
+        assertEquals(TestWorkbooks.persons(ROWS), rows);
+        for (int i = 0; i < ROWS; i++) {
+            assertEquals(Integer.valueOf(i + 2), rowNums.get(i));
+        }
+        assertEquals(0, overlaps.get());
+    }
+
+    @Test
+    public void conversionFailureStopsDeliveryAndPropagates() {
+        final List<Person> rows = new ArrayList<>();
+        RowPipeline<Person> rowPipeline = newPipeline(new RowHandler<Person>() {
+            @Override
+            public void handle(Person item, int rowNum) {
+                rows.add(item);
+            }
+        });
+        int invalid = 3000;
+        try {
+            push(rowPipeline, TestWorkbooks.persons(ROWS), invalid);
+            rowPipeline.flush();
+            fail("conversion failure was swallowed");
+        } catch (RuntimeException e) {
+            // 失败之前交付的行仍然按顺序排列, 失败之后不再交付
+            assertTrue(rows.size() < invalid);
+            assertEquals(TestWorkbooks.persons(rows.size()), rows);
+        } finally {
+            rowPipeline.shutdown();
+        }
+    }
+
+    @Test
+    public void handlerFailurePropagates() {
+        final AtomicInteger calls = new AtomicInteger();
+        RowPipeline<Person> rowPipeline = newPipeline(new RowHandler<Person>() {
+            @Override
+            public void handle(Person item, int rowNum) {
+                calls.incrementAndGet();
+                if (rowNum == 100) {
+                    throw new IllegalStateException("handler down");
+                }
+            }
+        });
+        try {
+            push(rowPipeline, TestWorkbooks.persons(ROWS), -1);
+            rowPipeline.flush();
+            fail("handler failure was swallowed");
+        } catch (IllegalStateException e) {
+            assertEquals("handler down", e.getMessage());
+            assertEquals(99, calls.get());
+        } finally {
+            rowPipeline.shutdown();
+        }
+    }
+
+    private static RowPipeline<Person> newPipeline(RowHandler<Person> rowHandler) {
+        CellField[] cellFields = new CellField[3];
+        for (CellField cellField : AnnotationHandler.parseClass(Person.class)) {
+            cellFields[cellField.getIndex()] = cellField;
+        }
+        return new RowPipeline<>(Person.class, cellFields, 2, WORKERS, rowHandler);
+    }
+
+    // 按解析器的方式逐个推送单元格, 第1行是标题行, 编号为 invalid 的行写入无法转换的编号
+    private static void push(RowPipeline<Person> rowPipeline, List<Person> persons, int invalid) {
+        rowPipeline.bindCell(0, 1, "编号");
+        rowPipeline.bindCell(1, 1, "姓名");
+        rowPipeline.bindCell(2, 1, "金额");
+        for (int i = 0; i < persons.size(); i++) {
+            Person person = persons.get(i);
+            int row = i + 2;
+            rowPipeline.bindCell(0, row, person.getId() == invalid ? "invalid" : String.valueOf(person.getId()));
+            rowPipeline.bindCell(1, row, person.getName());
+            rowPipeline.bindCell(2, row, String.valueOf(person.getAmount()));
+        }
+    }
+
+}
@@ -0,0 +1,246 @@
+package org.fanlychie.jexcel.read;
+
+import org.fanlychie.jexcel.ExcelHelper;
+import org.fanlychie.jexcel.exception.ReadLimitException;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * 工作表发布者的测试, 覆盖请求驱动的解析、取消及 Reactive Streams 规范中订阅相关的规则
+ */
+public class SheetPublisherTest {
+
+    private static final int ROWS = 100;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void rowsAreEmittedOnlyOnRequest() throws Exception {
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        publisher().subscribe(subscriber);
+        assertEquals(0, subscriber.items.size());
+        subscriber.subscription.request(3);
+        assertEquals(TestWorkbooks.persons(3), subscriber.items);
+        assertFalse(subscriber.completed);
+        subscriber.subscription.request(ROWS - 3);
+        assertEquals(TestWorkbooks.persons(ROWS), subscriber.items);
+        // 行数恰好满足请求时, 下一次请求才能发现工作表结束
+        assertFalse(subscriber.completed);
+        subscriber.subscription.request(1);
+        assertTrue(subscriber.completed);
+        assertNull(subscriber.error);
+    }
+
+    @Test
+    public void unboundedDemandDoesNotOverflow() throws Exception {
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        publisher().subscribe(subscriber);
+        subscriber.subscription.request(Long.MAX_VALUE - 1);
+        subscriber.subscription.request(Long.MAX_VALUE);
+        assertEquals(TestWorkbooks.persons(ROWS), subscriber.items);
+        assertTrue(subscriber.completed);
+    }
+
+    @Test
+    public void cancelStopsEmission() throws Exception {
+        RecordingSubscriber subscriber = new RecordingSubscriber() {
+            @Override
+            public void onNext(Person person) {
+                super.onNext(person);
+                if (items.size() == 2) {
+                    subscription.cancel();
+                }
+            }
+        };
+        publisher().subscribe(subscriber);
+        subscriber.subscription.request(10);
+        subscriber.subscription.request(10);
+        subscriber.subscription.cancel();
+        assertEquals(TestWorkbooks.persons(2), subscriber.items);
+        assertFalse(subscriber.completed);
+        assertNull(subscriber.error);
+    }
+
+    @Test
+    public void nonPositiveRequestSignalsIllegalArgument() throws Exception {
+        // 规则 3.9
+        for (long n : new long[]{0, -1, Long.MIN_VALUE}) {
+            RecordingSubscriber subscriber = new RecordingSubscriber();
+            publisher().subscribe(subscriber);
+            subscriber.subscription.request(1);
+            subscriber.subscription.request(n);
+            assertTrue(String.valueOf(subscriber.error), subscriber.error instanceof IllegalArgumentException);
+            subscriber.subscription.request(10);
+            assertEquals(1, subscriber.items.size());
+            assertFalse(subscriber.completed);
+        }
+    }
+
+    @Test
+    public void secondSubscriberIsRejected() throws Exception {
+        Publisher<Person> publisher = publisher();
+        RecordingSubscriber first = new RecordingSubscriber();
+        RecordingSubscriber second = new RecordingSubscriber();
+        publisher.subscribe(first);
+        publisher.subscribe(second);
+        // 规则 1.9, 先回调 onSubscribe 再发出错误
+        assertNotNull(second.subscription);
+        assertTrue(String.valueOf(second.error), second.error instanceof IllegalStateException);
+        first.subscription.request(Long.MAX_VALUE);
+        assertEquals(TestWorkbooks.persons(ROWS), first.items);
+        try {
+            publisher.subscribe(null);
+            fail("null subscriber was accepted");
+        } catch (NullPointerException e) {
+            // 规则 1.9
+        }
+    }
+
+    @Test
+    public void requestFromOnNextDoesNotRecurse() throws Exception {
+        // 规则 3.3, onNext 中同步请求不会嵌套回调
+        final AtomicInteger depth = new AtomicInteger();
+        final AtomicInteger maxDepth = new AtomicInteger();
+        RecordingSubscriber subscriber = new RecordingSubscriber() {
+            @Override
+            public void onNext(Person person) {
+                maxDepth.set(Math.max(maxDepth.get(), depth.incrementAndGet()));
+                super.onNext(person);
+                subscription.request(1);
+                depth.decrementAndGet();
+            }
+        };
+        publisher().subscribe(subscriber);
+        subscriber.subscription.request(1);
+        assertEquals(TestWorkbooks.persons(ROWS), subscriber.items);
+        assertTrue(subscriber.completed);
+        assertEquals(1, maxDepth.get());
+    }
+
+    @Test
+    public void executorSignalsSeriallyAndInOrder() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            final CountDownLatch latch = new CountDownLatch(1);
+            final AtomicInteger active = new AtomicInteger();
+            final AtomicInteger overlaps = new AtomicInteger();
+            RecordingSubscriber subscriber = new RecordingSubscriber() {
+                @Override
+                public void onNext(Person person) {
+                    if (active.incrementAndGet() > 1) {
+                        overlaps.incrementAndGet();
+                    }
+                    super.onNext(person);
+                    active.decrementAndGet();
+                    subscription.request(1);
+                }
+
+                @Override
+                public void onComplete() {
+                    super.onComplete();
+                    latch.countDown();
+                }
+
+                @Override
+                public void onError(Throwable t) {
+                    super.onError(t);
+                    latch.countDown();
+                }
+            };
+            ExcelHelper.getReadableExcel(xlsx()).publishSheetAt(1, Person.class, executor).subscribe(subscriber);
+            for (int i = 0; i < 4; i++) {
+                subscriber.subscription.request(1);
+            }
+            assertTrue(latch.await(30, TimeUnit.SECONDS));
+            assertNull(subscriber.error);
+            assertEquals(TestWorkbooks.persons(ROWS), subscriber.items);
+            assertEquals(0, overlaps.get());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void parseFailureSignalsOnError() throws Exception {
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        ExcelHelper.getReadableExcel(xlsx()).setReadLimits(new ReadLimits().setMaxRows(10))
+                .publishSheetAt(1, Person.class).subscribe(subscriber);
+        subscriber.subscription.request(Long.MAX_VALUE);
+        assertTrue(String.valueOf(subscriber.error), subscriber.error instanceof ReadLimitException);
+        assertFalse(subscriber.completed);
+    }
+
+    private Publisher<Person> publisher() throws Exception {
+        return ExcelHelper.getReadableExcel(xlsx()).publishSheetAt(1, Person.class);
+    }
+
+    private File xlsx() throws Exception {
+        return TestWorkbooks.xlsx(folder.newFile(), TestWorkbooks.persons(ROWS));
+    }
+
+    /**
+     * 记录收到的信号, 终止信号之后再收到任何信号都视为违反规范
+     */
+    private static class RecordingSubscriber implements Subscriber<Person> {
+
+        final List<Person> items = Collections.synchronizedList(new ArrayList<Person>());
+
+        volatile Subscription subscription;
+
+        volatile boolean completed;
+
+        volatile Throwable error;
+
+        @Override
+        public void onSubscribe(Subscription subscription) {
+            assertNull(this.subscription);
+            this.subscription = subscription;
+        }
+
+        @Override
+        public void onNext(Person person) {
+            assertNotTerminated();
+            items.add(person);
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            assertNotTerminated();
+            error = t;
+        }
+
+        @Override
+        public void onComplete() {
+            assertNotTerminated();
+            completed = true;
+        }
+
+        private void assertNotTerminated() {
+            assertFalse(completed || error != null);
+        }
+
+    }
+
+}
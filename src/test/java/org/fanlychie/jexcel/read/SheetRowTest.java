@@ -0,0 +1,160 @@
+package org.fanlychie.jexcel.read;
+
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.fanlychie.jexcel.ExcelHelper;
+import org.fanlychie.jexcel.exception.ReadExcelException;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * 按行定义读取的测试, 行视图在各行之间复用
+ */
+public class SheetRowTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void rowBufferIsReusedAndCleared() throws Exception {
+        // 第3行的姓名为空, 不能残留第2行的值
+        File file = workbook(new String[]{"编号", "姓名", "金额"}, new Object[][]{{1, "a", 1.5}, {2, null, 3.0}, {3, "c", 4.5}});
+        final List<SheetRow> instances = new ArrayList<>();
+        final List<String> rows = new ArrayList<>();
+        RowSchema schema = new RowSchema().addColumn(0, int.class).addColumn(1, String.class).addColumn(2, double.class);
+        ExcelHelper.getReadableExcel(file).parseSheetAt(1, schema, new RowHandler<SheetRow>() {
+            @Override
+            public void handle(SheetRow row, int rowNum) {
+                instances.add(row);
+                rows.add(rowNum + ":" + row.getInt(0) + "," + row.getString(1) + "," + row.getDouble(2) + "," + row.isNull(1));
+            }
+        });
+        assertEquals(Arrays.asList("2:1,a,1.5,false", "3:2,null,3.0,true", "4:3,c,4.5,false"), rows);
+        assertSame(instances.get(0), instances.get(2));
+    }
+
+    @Test
+    public void headerBindsNamedColumnsAndKeepsUnnamedByIndex() throws Exception {
+        // 标题行的顺序与行定义不同, 没有名称的列按索引绑定
+        File file = workbook(new String[]{"金额", "编号", "姓名", "备注"}, new Object[][]{{1.5, 1, "a", "x"}, {3.0, 2, "b", "y"}});
+        final List<String> rows = new ArrayList<>();
+        RowSchema schema = new RowSchema().addColumn(0, "编号", long.class).addColumn(1, "姓名", String.class)
+                .addColumn(2, "金额", Double.class).addColumn(3, String.class);
+        ExcelHelper.getReadableExcel(file).setHeaderRow(1).parseSheetAt(1, schema, new RowHandler<SheetRow>() {
+            @Override
+            public void handle(SheetRow row, int rowNum) {
+                rows.add(row.toMap().toString());
+            }
+        });
+        assertEquals(Arrays.asList("{编号=1, 姓名=a, 金额=1.5, 3=x}", "{编号=2, 姓名=b, 金额=3.0, 3=y}"), rows);
+    }
+
+    @Test
+    public void emptyPrimitiveCellReportsSheetCellName() throws Exception {
+        File file = workbook(new String[]{"编号", "金额"}, new Object[][]{{1, null}});
+        final List<Object> values = new ArrayList<>();
+        RowSchema schema = new RowSchema().addColumn(0, int.class).addColumn(1, double.class);
+        ExcelHelper.getReadableExcel(file).parseSheetAt(1, schema, new RowHandler<SheetRow>() {
+            @Override
+            public void handle(SheetRow row, int rowNum) {
+                // 按列定义的类型取值时空的基本类型单元格返回 null
+                values.add(row.getValue(1));
+                try {
+                    row.getDouble(1);
+                    fail("empty primitive cell was accepted");
+                } catch (ReadExcelException e) {
+                    values.add(e.getMessage());
+                }
+            }
+        });
+        assertNull(values.get(0));
+        assertTrue(String.valueOf(values.get(1)), String.valueOf(values.get(1)).contains("B2"));
+    }
+
+    @Test
+    public void undefinedColumnsAreRejectedByEveryTypedGetter() throws Exception {
+        File file = workbook(new String[]{"编号"}, new Object[][]{{1}});
+        final List<String> errors = new ArrayList<>();
+        RowSchema schema = new RowSchema().addColumn(0, int.class).addColumn(2, int.class);
+        ExcelHelper.getReadableExcel(file).parseSheetAt(1, schema, new RowHandler<SheetRow>() {
+            @Override
+            public void handle(SheetRow row, int rowNum) {
+                for (int column : new int[]{1, 3, 100, -1}) {
+                    assertNull(row.getString(column));
+                    assertTrue(row.isNull(column));
+                    for (int getter = 0; getter < 7; getter++) {
+                        try {
+                            get(row, getter, column);
+                            errors.add("accepted " + getter + " " + column);
+                        } catch (IllegalArgumentException e) {
+                            // 与 getValue(int) 一致
+                        }
+                    }
+                }
+            }
+        });
+        assertEquals(new ArrayList<String>(), errors);
+    }
+
+    private static Object get(SheetRow row, int getter, int column) {
+        switch (getter) {
+            case 0:
+                return row.getInt(column);
+            case 1:
+                return row.getLong(column);
+            case 2:
+                return row.getDouble(column);
+            case 3:
+                return row.getBoolean(column);
+            case 4:
+                return row.getBigDecimal(column);
+            case 5:
+                return row.getDate(column);
+            default:
+                return row.getValue(column);
+        }
+    }
+
+    // 第1行为标题, 其后为数据行, null 为空单元格
+    private File workbook(String[] titles, Object[][] data) throws Exception {
+        File file = folder.newFile("rows.xlsx");
+        XSSFWorkbook workbook = new XSSFWorkbook();
+        Sheet sheet = workbook.createSheet("Sheet1");
+        Row header = sheet.createRow(0);
+        for (int c = 0; c < titles.length; c++) {
+            header.createCell(c).setCellValue(titles[c]);
+        }
+        for (int r = 0; r < data.length; r++) {
+            Row row = sheet.createRow(r + 1);
+            for (int c = 0; c < data[r].length; c++) {
+                Object value = data[r][c];
+                if (value instanceof Number) {
+                    row.createCell(c).setCellValue(((Number) value).doubleValue());
+                } else if (value != null) {
+                    row.createCell(c).setCellValue(value.toString());
+                }
+            }
+        }
+        try (OutputStream out = new FileOutputStream(file)) {
+            workbook.write(out);
+        }
+        workbook.close();
+        return file;
+    }
+
+}
@@ -0,0 +1,64 @@
+package org.fanlychie.jexcel.read;
+
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.DataFormat;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 样式格式表的测试, StAX 读取的结果与 StylesTable 一致
+ */
+public class StyleFormatsTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void streamedStylesMatchStylesTable() throws Exception {
+        File file = folder.newFile("styles.xlsx");
+        XSSFWorkbook workbook = new XSSFWorkbook();
+        DataFormat dataFormat = workbook.createDataFormat();
+        Row row = workbook.createSheet("Sheet1").createRow(0);
+        String[] formats = {"yyyy/mm/dd", "0.000", "m/d/yy", "@", "[$-409]h:mm AM/PM", "#,##0.00"};
+        for (int i = 0; i < formats.length; i++) {
+            CellStyle style = workbook.createCellStyle();
+            style.setDataFormat(dataFormat.getFormat(formats[i]));
+            row.createCell(i).setCellStyle(style);
+        }
+        try (OutputStream out = new FileOutputStream(file)) {
+            workbook.write(out);
+        }
+        workbook.close();
+        OPCPackage opcPackage = OPCPackage.open(file, PackageAccess.READ);
+        try {
+            StyleFormats expected = new StyleFormats(new XSSFReader(opcPackage).getStylesTable());
+            StyleFormats actual = StyleFormats.read(opcPackage, null);
+            assertTrue(actual.contains(formats.length));
+            assertEquals(false, actual.contains(formats.length + 1));
+            int dates = 0;
+            for (int i = 0; i <= formats.length; i++) {
+                assertEquals(expected.getFormatIndex(i), actual.getFormatIndex(i));
+                assertEquals(expected.getFormatString(i), actual.getFormatString(i));
+                assertEquals(expected.isDateFormat(i), actual.isDateFormat(i));
+                dates += actual.isDateFormat(i) ? 1 : 0;
+            }
+            assertEquals(3, dates);
+        } finally {
+            opcPackage.revert();
+        }
+    }
+
+}
@@ -0,0 +1,174 @@
+package org.fanlychie.jexcel.read;
+
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * 测试用的工作簿生成工具
+ */
+final class TestWorkbooks {
+
+    private TestWorkbooks() {
+    }
+
+    /**
+     * 生成 n 行数据, 编号从1开始
+     */
+    static List<Person> persons(int n) {
+        return persons(1, n);
+    }
+
+    /**
+     * 生成 n 行数据, 编号从 from 开始
+     */
+    static List<Person> persons(int from, int n) {
+        List<Person> persons = new ArrayList<>(n);
+        for (int i = from; i < from + n; i++) {
+            persons.add(new Person(i, "名字" + (i % 7), i * 1.5));
+        }
+        return persons;
+    }
+
+    /**
+     * 写出 .xlsx 文件, 第1行为表头
+     */
+    static File xlsx(File file, List<Person> persons) throws IOException {
+        return write(new XSSFWorkbook(), file, persons, false);
+    }
+
+    /**
+     * 写出多个工作表的 .xlsx 文件, 每个工作表的第1行为表头
+     */
+    static File xlsxSheets(File file, List<List<Person>> sheets) throws IOException {
+        return writeSheets(new XSSFWorkbook(), file, sheets, false);
+    }
+
+    /**
+     * 写出 .xlsx 文件, 最后追加一行编号不是数字的无效数据, 只有解析到该行时才会失败
+     */
+    static File xlsxWithInvalidTail(File file, List<Person> persons) throws IOException {
+        return write(new XSSFWorkbook(), file, persons, true);
+    }
+
+    /**
+     * 写出 .xls 文件, 第1行为表头
+     */
+    static File xls(File file, List<Person> persons) throws IOException {
+        return write(new HSSFWorkbook(), file, persons, false);
+    }
+
+    /**
+     * 写出多个工作表的 .xls 文件, 每个工作表的第1行为表头
+     */
+    static File xlsSheets(File file, List<List<Person>> sheets) throws IOException {
+        return writeSheets(new HSSFWorkbook(), file, sheets, false);
+    }
+
+    /**
+     * 写出 .xls 文件, 最后追加一行编号不是数字的无效数据, 只有解析到该行时才会失败
+     */
+    static File xlsWithInvalidTail(File file, List<Person> persons) throws IOException {
+        return write(new HSSFWorkbook(), file, persons, true);
+    }
+
+    /**
+     * 复制 .xlsx 文件并替换其中一个部件的内容
+     */
+    static File replaceEntry(File source, File target, String entryName, String content) throws IOException {
+        try (ZipInputStream in = new ZipInputStream(new FileInputStream(source));
+             ZipOutputStream out = new ZipOutputStream(new FileOutputStream(target))) {
+            boolean replaced = false;
+            ZipEntry entry;
+            while ((entry = in.getNextEntry()) != null) {
+                out.putNextEntry(new ZipEntry(entry.getName()));
+                if (entry.getName().equals(entryName)) {
+                    out.write(content.getBytes(StandardCharsets.UTF_8));
+                    replaced = true;
+                } else {
+                    copy(in, out);
+                }
+                out.closeEntry();
+            }
+            if (!replaced) {
+                out.putNextEntry(new ZipEntry(entryName));
+                out.write(content.getBytes(StandardCharsets.UTF_8));
+                out.closeEntry();
+            }
+        }
+        return target;
+    }
+
+    /**
+     * 读取 .xlsx 文件中一个部件的内容
+     */
+    static String readEntry(File source, String entryName) throws IOException {
+        try (ZipInputStream in = new ZipInputStream(new FileInputStream(source))) {
+            ZipEntry entry;
+            while ((entry = in.getNextEntry()) != null) {
+                if (entry.getName().equals(entryName)) {
+                    ByteArrayOutputStream out = new ByteArrayOutputStream();
+                    copy(in, out);
+                    return new String(out.toByteArray(), StandardCharsets.UTF_8);
+                }
+            }
+        }
+        throw new IOException("entry not found : " + entryName);
+    }
+
+    private static File write(Workbook workbook, File file, List<Person> persons, boolean invalidTail) throws IOException {
+        return writeSheets(workbook, file, Collections.singletonList(persons), invalidTail);
+    }
+
+    private static File writeSheets(Workbook workbook, File file, List<List<Person>> sheets, boolean invalidTail) throws IOException {
+        for (int s = 0; s < sheets.size(); s++) {
+            List<Person> persons = sheets.get(s);
+            Sheet sheet = workbook.createSheet("Sheet" + (s + 1));
+            Row header = sheet.createRow(0);
+            header.createCell(0).setCellValue("编号");
+            header.createCell(1).setCellValue("姓名");
+            header.createCell(2).setCellValue("金额");
+            for (int i = 0; i < persons.size(); i++) {
+                Person person = persons.get(i);
+                Row row = sheet.createRow(i + 1);
+                row.createCell(0).setCellValue(person.getId());
+                row.createCell(1).setCellValue(person.getName());
+                row.createCell(2).setCellValue(person.getAmount());
+            }
+            if (invalidTail) {
+                sheet.createRow(persons.size() + 1).createCell(0).setCellValue("invalid");
+            }
+        }
+        try (OutputStream out = new FileOutputStream(file)) {
+            workbook.write(out);
+        }
+        workbook.close();
+        return file;
+    }
+
+    private static void copy(InputStream in, OutputStream out) throws IOException {
+        byte[] buffer = new byte[8192];
+        int n;
+        while ((n = in.read(buffer)) != -1) {
+            out.write(buffer, 0, n);
+        }
+    }
+
+}
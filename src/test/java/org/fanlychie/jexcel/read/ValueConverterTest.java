@@ -0,0 +1,57 @@
+package org.fanlychie.jexcel.read;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * 数值转换的测试, 整数逐位解析, 溢出及小数按 double 解析后截断, 与按 double 转换的结果一致
+ */
+public class ValueConverterTest {
+
+    @Test
+    public void nineteenDigitValuesKeepEveryDigit() {
+        assertEquals(1234567890123456789L, ValueConverter.convertLongValue("1234567890123456789"));
+        assertEquals(-1234567890123456789L, ValueConverter.convertLongValue("-1234567890123456789"));
+        assertEquals(Long.MAX_VALUE, ValueConverter.convertLongValue(String.valueOf(Long.MAX_VALUE)));
+        assertEquals(9007199254740993L, ValueConverter.convertLongValue("+9007199254740993"));
+        assertEquals(0L, ValueConverter.convertLongValue("-0"));
+    }
+
+    @Test
+    public void minValueDoesNotOverflow() {
+        assertEquals(Long.MIN_VALUE, ValueConverter.convertLongValue(String.valueOf(Long.MIN_VALUE)));
+        assertEquals(Long.MIN_VALUE, ValueConverter.convertLongValue("-9223372036854775809"));
+    }
+
+    @Test
+    public void overflowFallsBackToDouble() {
+        for (String value : new String[]{"9223372036854775808", "99999999999999999999", "-99999999999999999999",
+                "1.9", "-1.9", "1.5E3", "12345678901234567890.5"}) {
+            assertEquals(value, (long) Double.parseDouble(value), ValueConverter.convertLongValue(value));
+        }
+        assertEquals(Long.MAX_VALUE, ValueConverter.convertLongValue("99999999999999999999"));
+    }
+
+    @Test(expected = NumberFormatException.class)
+    public void signWithoutDigitsIsRejected() {
+        ValueConverter.convertLongValue("-");
+    }
+
+    @Test
+    public void narrowingMatchesDoubleConversion() {
+        for (String value : new String[]{"0", "127", "128", "-129", "255", "32767", "32768", "-32769", "40000", "65536",
+                "2147483647", "2147483648", "-2147483649", "3000000000", "1234567890123456789", "99999999999999999999",
+                String.valueOf(Long.MIN_VALUE), "300.7", "-300.7"}) {
+            Double doubleValue = Double.valueOf(value);
+            assertEquals(value, doubleValue.intValue(), ValueConverter.convertIntValue(value));
+            assertEquals(value, doubleValue.shortValue(), ValueConverter.convertShortValue(value));
+            assertEquals(value, doubleValue.byteValue(), ValueConverter.convertByteValue(value));
+        }
+        assertEquals(Integer.MAX_VALUE, ValueConverter.convertIntValue("3000000000"));
+        assertEquals(Integer.MIN_VALUE, ValueConverter.convertIntValue("-3000000000"));
+        assertEquals((short) 40000, ValueConverter.convertShortValue("40000"));
+        assertEquals((byte) 200, ValueConverter.convertByteValue("200"));
+    }
+
+}
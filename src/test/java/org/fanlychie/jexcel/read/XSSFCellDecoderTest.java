@@ -0,0 +1,123 @@
+package org.fanlychie.jexcel.read;
+
+import org.fanlychie.jexcel.ExcelHelper;
+import org.fanlychie.jexcel.exception.ReadExcelException;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+/**
+ * 单元格引用的解析测试, 包括多字母列、没有 r 属性时按位置顺延及格式错误的引用
+ */
+public class XSSFCellDecoderTest {
+
+    private static final String MAIN = "http://schemas.openxmlformats.org/spreadsheetml/2006/main";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void multiLetterColumnsKeepTheRowNumber() {
+        XSSFCellDecoder decoder = new XSSFCellDecoder(null, null);
+        decoder.startRow(XSSFCellDecoder.parseRowRef("12"));
+        assertCell(decoder, "AA12", 26, 12);
+        assertCell(decoder, "AZ12", 51, 12);
+        assertCell(decoder, "BA12", 52, 12);
+        decoder.startRow(XSSFCellDecoder.parseRowRef("1048576"));
+        assertCell(decoder, "XFD1048576", 16383, 1048576);
+        assertCell(decoder, "A1", 0, 1);
+    }
+
+    @Test
+    public void missingReferencesFollowThePreviousCell() {
+        XSSFCellDecoder decoder = new XSSFCellDecoder(null, null);
+        decoder.startRow(XSSFCellDecoder.parseRowRef("12"));
+        assertCell(decoder, "C12", 2, 12);
+        assertCell(decoder, null, 3, 12);
+        decoder.startRow(XSSFCellDecoder.parseRowRef(null));
+        assertCell(decoder, null, 0, 13);
+        assertCell(decoder, "AA13", 26, 13);
+        assertCell(decoder, null, 27, 13);
+        decoder.startRow(XSSFCellDecoder.parseRowRef(""));
+        assertEquals(14, decoder.getRow());
+    }
+
+    @Test
+    public void malformedReferencesAreRejected() {
+        XSSFCellDecoder decoder = new XSSFCellDecoder(null, null);
+        for (String cellRef : new String[]{"", "12", "A", "1A", "A1B", "a1", "A0", "A-1", "A 1", "A1234567890", "AAAAAAAA1"}) {
+            try {
+                decoder.nextCell(cellRef);
+                fail("accepted cell reference " + cellRef);
+            } catch (ReadExcelException e) {
+                // 不再按位置顺延或拼出错误的行号
+            }
+        }
+        for (String rowRef : new String[]{"x", "0", "1a", "-1", "1234567890"}) {
+            try {
+                XSSFCellDecoder.parseRowRef(rowRef);
+                fail("accepted row reference " + rowRef);
+            } catch (ReadExcelException e) {
+                // 同上
+            }
+        }
+    }
+
+    @Test
+    public void everyEngineReadsReferencesAlike() throws Exception {
+        File file = sheet("<row r=\"12\"><c r=\"A12\" t=\"inlineStr\"><is><t>a</t></is></c><c r=\"AA12\"><v>1</v></c></row>"
+                + "<row><c t=\"inlineStr\"><is><t>b</t></is></c><c t=\"inlineStr\"><is><t>x</t></is></c><c r=\"AA13\"><v>2</v></c></row>"
+                + "<row><c r=\"A14\" t=\"inlineStr\"><is><t>c</t></is></c></row>");
+        List<String> expected = Arrays.asList("12:{0=a, 1=null, 26=1}", "13:{0=b, 1=x, 26=2}", "14:{0=c, 1=null, 26=null}");
+        for (ReadEngine readEngine : ReadEngine.values()) {
+            assertEquals(readEngine.name(), expected, read(file, readEngine));
+        }
+    }
+
+    @Test
+    public void everyEngineRejectsMalformedReferences() throws Exception {
+        File file = sheet("<row r=\"1\"><c r=\"A1B\"><v>1</v></c></row>");
+        for (ReadEngine readEngine : ReadEngine.values()) {
+            try {
+                read(file, readEngine);
+                fail(readEngine + " accepted a malformed reference");
+            } catch (ReadExcelException e) {
+                assertEquals("Invalid cell reference: A1B", e.getMessage());
+            }
+        }
+    }
+
+    private static void assertCell(XSSFCellDecoder decoder, String cellRef, int column, int row) {
+        decoder.nextCell(cellRef);
+        assertEquals(cellRef, column, decoder.getColumn());
+        assertEquals(cellRef, row, decoder.getRow());
+    }
+
+    private static List<String> read(File file, ReadEngine readEngine) {
+        final List<String> rows = new ArrayList<>();
+        RowSchema schema = new RowSchema().addColumn(0, String.class).addColumn(1, String.class).addColumn(26, Integer.class);
+        ExcelHelper.getReadableExcel(file).setReadEngine(readEngine).parseSheetAt(1, schema, new RowHandler<SheetRow>() {
+            @Override
+            public void handle(SheetRow row, int rowNum) {
+                rows.add(rowNum + ":" + row.toMap());
+            }
+        });
+        return rows;
+    }
+
+    private File sheet(String rows) throws Exception {
+        File source = TestWorkbooks.xlsx(folder.newFile(), TestWorkbooks.persons(1));
+        return TestWorkbooks.replaceEntry(source, folder.newFile(), "xl/worksheets/sheet1.xml",
+                "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>"
+                        + "<worksheet xmlns=\"" + MAIN + "\"><sheetData>" + rows + "</sheetData></worksheet>");
+    }
+
+}